@@ -21,33 +21,70 @@ package com.amazon.hub.counter;
 import com.amazon.hub.counter.entities.*;
 import com.amazon.hub.counter.helpers.FeedAPIEndpointProvider;
 import com.amazon.hub.counter.helpers.HttpUtils;
+import com.amazon.hub.counter.helpers.SingleFlight;
+import com.amazon.hub.counter.json.JsonCodecs;
 import com.amazon.hub.counter.login.*;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpStatusException;
+import com.amazon.hub.counter.transport.HttpTransport;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.amazon.hub.counter.transport.RequestBody;
+import com.amazon.hub.counter.transport.RetryingHttpTransport;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-import com.google.gson.Gson;
-
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Solves the interaction with Amazon Counter API for submitting, updating and
  * querying feeds and their associate documents.
+ * Concurrent identical reads, with the same URL and accessToken, share a
+ * single request and receive the same decoded object.
+ * Close the handler to stop the background refresh of the accessToken used
+ * by the overloads without accessToken.
  */
-public class AmazonHubCounterFeedAPI {
+public class AmazonHubCounterFeedAPI implements Closeable {
 
     private static final Logger logger = LogManager.getLogger(
             AmazonHubCounterFeedAPI.class.getName());
 
     private static final String AUTH_TOKEN_PREFIX = "Bearer ";
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final String ACCESS_POINTS_FIELD = "accessPoints";
+    private static final String COMPLETED_STATUS = "Completed";
+    private static final String FAILED_STATUS = "Failed";
 
     private final ClientCredentials clientCredentials;
     private final String authEndpoint;
     private final String apiEndpoint;
     private final FeedAPIEndpointProvider apiEndpointProvider;
+    private final HttpTransport httpTransport;
+    private final LoginClient loginClient;
+    private final SingleFlight<String, Object> inFlightReads =
+            new SingleFlight<>();
+    private volatile AccessTokenProvider accessTokenProvider;
+    private volatile AuthorizationHeader authorizationHeader;
+
+    // Guarded by this
+    private CachingAccessTokenProvider ownedAccessTokenProvider;
+    private boolean closed;
 
     /**
+     * Requests failing with a transient error are retried with the default
+     * {@link com.amazon.hub.counter.transport.RetryPolicy}.
+     *
      * @param clientCredentials Your client credentials.
      * @param apiEndpoint       URL for the API endpoint to be used.
      * @param authEndpoint      URL for the authentication endpoint to be used.
@@ -56,11 +93,51 @@ public class AmazonHubCounterFeedAPI {
                                    final String apiEndpoint,
                                    final String authEndpoint) {
 
+        this(clientCredentials, apiEndpoint, authEndpoint,
+                new RetryingHttpTransport(new PooledHttpTransport()));
+    }
+
+    /**
+     * @param clientCredentials Your client credentials.
+     * @param apiEndpoint       URL for the API endpoint to be used.
+     * @param authEndpoint      URL for the authentication endpoint to be used.
+     * @param httpTransport     The transport used to send every request.
+     */
+    public AmazonHubCounterFeedAPI(final ClientCredentials clientCredentials,
+                                   final String apiEndpoint,
+                                   final String authEndpoint,
+                                   final HttpTransport httpTransport) {
+
+        this(clientCredentials, apiEndpoint, authEndpoint, httpTransport,
+                null);
+    }
+
+    /**
+     * @param clientCredentials   Your client credentials.
+     * @param apiEndpoint         URL for the API endpoint to be used.
+     * @param authEndpoint        URL for the authentication endpoint to be
+     *                            used.
+     * @param httpTransport       The transport used to send every request.
+     * @param accessTokenProvider Supplies the accessToken of the overloads
+     *                            without accessToken, such as a provider of
+     *                            a {@link MultiTenantTokenCache}. It is not
+     *                            closed with the handler.
+     */
+    public AmazonHubCounterFeedAPI(final ClientCredentials clientCredentials,
+                                   final String apiEndpoint,
+                                   final String authEndpoint,
+                                   final HttpTransport httpTransport,
+                                   final AccessTokenProvider
+                                           accessTokenProvider) {
+
         this.clientCredentials = clientCredentials;
         this.apiEndpoint = apiEndpoint;
         this.authEndpoint = authEndpoint;
         this.apiEndpointProvider = new FeedAPIEndpointProvider(
                 this.apiEndpoint);
+        this.httpTransport = httpTransport;
+        this.loginClient = new LoginClient(authEndpoint, httpTransport);
+        this.accessTokenProvider = accessTokenProvider;
     }
 
     /**
@@ -69,30 +146,19 @@ public class AmazonHubCounterFeedAPI {
      */
     public String getAccessToken() {
 
-        LoginRequest loginRequest = LoginRequest.builder()
-                .client_id(this.clientCredentials.getClientId())
-                .client_secret(this.clientCredentials.getClientSecret())
-                .grant_type(this.clientCredentials.getAuthGrantType())
-                .scope(this.clientCredentials.getAuthScope())
-                .build();
-
-        logger.debug("Login in...");
-
-        String json = loginRequest.toJson();
-
-        try {
-            String response = HttpUtils.postJson(this.authEndpoint, json, null);
-            Gson gson = new Gson();
-            Map obj = gson.fromJson(response, Map.class);
-
-            String token = obj.get("access_token").toString();
-
-            return token;
+        return login().getToken();
+    }
 
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+    /**
+     * Logs in to the authentication endpoint, every call sends a new login
+     * request. Use a {@link CachingAccessTokenProvider} to reuse the
+     * accessToken until it expires.
+     *
+     * @return A new accessToken and its expiration time.
+     */
+    public AccessToken login() {
 
+        return this.loginClient.login(this.clientCredentials);
     }
 
     /**
@@ -107,32 +173,253 @@ public class AmazonHubCounterFeedAPI {
                                   final Integer pageSize,
                                   final String accessToken) {
 
+        try {
+            return getFeeds(nextOffset, pageSize,
+                    getBearerToken(accessToken));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param nextOffset The pagination page id.
+     * @param pageSize   Defines the size of the pagination of the results,
+     *                   default: 50, max_value: 100.
+     * @return A list of feeds that this client has submitted, the results are
+     * paginated.
+     */
+    public FeedsResponse getFeeds(final String nextOffset,
+                                  final Integer pageSize) {
+
+        return authenticated(bearerToken -> getFeeds(nextOffset, pageSize,
+                bearerToken));
+    }
+
+    private FeedsResponse getFeeds(final String nextOffset,
+                                   final Integer pageSize,
+                                   final AuthorizationHeader bearerToken)
+            throws IOException {
+
         String url = this.apiEndpointProvider.getFeedsEndpoint(nextOffset,
                 pageSize);
 
+        logger.debug("Getting client Feeds...");
 
-        String bearerToken = getBearerToken(accessToken);
+        // Map JSON response to POJO
+        FeedsResponse feedsResponse = read(url, bearerToken.getValue(),
+                FeedsResponse.class);
 
-        logger.debug("Getting client Feeds...");
+        return feedsResponse;
+    }
 
-        try {
-            String response = HttpUtils.getJson(url, bearerToken);
+    /**
+     * Reads the feeds submitted since the last synchronization. The pages
+     * are read from the newest feed and the paging stops at the first page
+     * reaching the watermark, a synchronization with few new feeds costs one
+     * or two requests.
+     *
+     * @param watermark   The watermark returned by the last synchronization,
+     *                    {@link FeedWatermark#INITIAL} to read every feed.
+     * @param pageSize    Defines the size of the pagination of the results,
+     *                    default: 50, max_value: 100.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return The feeds above the watermark, the ones not processed yet and
+     * the watermark to persist.
+     */
+    public FeedSyncResult syncFeeds(final FeedWatermark watermark,
+                                    final Integer pageSize,
+                                    final String accessToken) {
 
-            // Map JSON response to POJO
-            Gson gson = new Gson();
-            FeedsResponse feedsResponse = gson.fromJson(response,
-                    FeedsResponse.class);
+        return syncFeeds(watermark, nextOffset -> getFeeds(nextOffset,
+                pageSize, accessToken));
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param watermark The watermark returned by the last synchronization,
+     *                  {@link FeedWatermark#INITIAL} to read every feed.
+     * @param pageSize  Defines the size of the pagination of the results,
+     *                  default: 50, max_value: 100.
+     * @return The feeds above the watermark, the ones not processed yet and
+     * the watermark to persist.
+     * @see #syncFeeds(FeedWatermark, Integer, String)
+     */
+    public FeedSyncResult syncFeeds(final FeedWatermark watermark,
+                                    final Integer pageSize) {
 
-            return feedsResponse;
+        return syncFeeds(watermark, nextOffset -> getFeeds(nextOffset,
+                pageSize));
+    }
+
+    private FeedSyncResult syncFeeds(
+            final FeedWatermark watermark,
+            final Function<String, FeedsResponse> pages) {
+
+        List<Feed> feeds = new ArrayList<>();
+        List<Feed> pendingFeeds = new ArrayList<>();
+        Feed newest = null;
+        String nextOffset = null;
+        boolean reached = false;
+        int pagesRead = 0;
+
+        do {
+            FeedsResponse page = pages.apply(nextOffset);
+            pagesRead++;
+            if (page == null) {
+                break;
+            }
+            // The whole page is checked, the order within a page is not
+            // relied on.
+            for (Feed feed : page.getRecords() == null ? new Feed[0]
+                    : page.getRecords()) {
+                if (watermark.covers(feed)) {
+                    reached = true;
+                    continue;
+                }
+                feeds.add(feed);
+                if (!isProcessed(feed)) {
+                    pendingFeeds.add(feed);
+                }
+                if (newest == null
+                        || !FeedWatermark.of(newest).covers(feed)) {
+                    newest = feed;
+                }
+            }
+            nextOffset = page.getNextOffset();
+        } while (!reached && nextOffset != null && !nextOffset.isEmpty());
+
+        logger.info("Synchronized [{}] new feeds from [{}] pages.",
+                feeds.size(), pagesRead);
+
+        return FeedSyncResult.builder()
+                .feeds(feeds.toArray(new Feed[0]))
+                .pendingFeeds(pendingFeeds.toArray(new Feed[0]))
+                .watermark(newest == null ? watermark
+                        : FeedWatermark.of(newest))
+                .pagesRead(pagesRead)
+                .build();
+    }
 
+    private static boolean isProcessed(final Feed feed) {
+
+        return COMPLETED_STATUS.equals(feed.getStatus())
+                || FAILED_STATUS.equals(feed.getStatus());
+    }
+
+    private AuthorizationHeader getBearerToken(final String accessToken) {
+        return new AuthorizationHeader(accessToken);
+    }
+
+    /**
+     * Sends a request authenticated with the accessToken of the internal
+     * provider. If the API rejects the token, it is renewed once and the
+     * request is sent again.
+     */
+    private <T> T authenticated(final AuthenticatedCall<T> call) {
+
+        AccessTokenProvider provider = getAccessTokenProvider();
+        AuthorizationHeader header = getAuthorizationHeader(
+                provider.getAccessToken());
+
+        try {
+            try {
+                return call.call(header);
+            } catch (HttpStatusException ex) {
+                if (ex.getStatusCode() != HTTP_UNAUTHORIZED) {
+                    throw ex;
+                }
+                logger.info("The accessToken was rejected, logging in again.");
+                header = getAuthorizationHeader(
+                        provider.refreshAccessToken(header.getToken()));
+                return call.call(header);
+            }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
+    }
+
+    /**
+     * @return The Authorization header of the token, built once per token.
+     */
+    private AuthorizationHeader getAuthorizationHeader(final String token) {
+
+        AuthorizationHeader header = this.authorizationHeader;
+
+        if (header == null || !header.getToken().equals(token)) {
+            header = new AuthorizationHeader(token);
+            this.authorizationHeader = header;
+        }
 
+        return header;
     }
 
-    private String getBearerToken(final String accessToken) {
-        return AUTH_TOKEN_PREFIX + accessToken;
+    /**
+     * Stops the background refresh of the accessToken created by the
+     * overloads without accessToken. A provider given to the constructor and
+     * the transport are left open, the handler can still send requests.
+     */
+    @Override
+    public synchronized void close() {
+
+        closed = true;
+
+        if (ownedAccessTokenProvider != null) {
+            ownedAccessTokenProvider.close();
+        }
+    }
+
+    /**
+     * @return The provider of the accessToken of the overloads without
+     * accessToken, created on first use.
+     */
+    private AccessTokenProvider getAccessTokenProvider() {
+
+        AccessTokenProvider provider = this.accessTokenProvider;
+
+        if (provider == null) {
+            synchronized (this) {
+                provider = this.accessTokenProvider;
+                if (provider == null) {
+                    if (closed) {
+                        throw new IllegalStateException("The API handler is "
+                                + "closed.");
+                    }
+                    ownedAccessTokenProvider =
+                            new CachingAccessTokenProvider(this);
+                    provider = ownedAccessTokenProvider;
+                    this.accessTokenProvider = provider;
+                }
+            }
+        }
+
+        return provider;
+    }
+
+    /**
+     * Sends a GET request, concurrent identical requests share a single
+     * request and its decoded response.
+     */
+    private <T> T read(final String url, final String bearerToken,
+                       final Class<T> type) throws IOException {
+
+        // Both documents share a URL, the type is part of the key.
+        String key = type.getName() + " " + bearerToken + " " + url;
+
+        return type.cast(this.inFlightReads.execute(key, () -> readJson(
+                HttpUtils.sendGet(this.httpTransport, url, bearerToken),
+                type)));
+    }
+
+    private static <T> T readJson(final HttpResponse response,
+                                  final Class<T> type) throws IOException {
+
+        try (HttpResponse closeableResponse = response) {
+            return HttpUtils.readJson(closeableResponse,
+                    JsonCodecs.getDefault(), type);
+        }
     }
 
     /**
@@ -142,24 +429,36 @@ public class AmazonHubCounterFeedAPI {
      */
     public Feed getFeedById(final String feedId, final String accessToken) {
 
-        String url = this.apiEndpointProvider.getFeedByIdEndpoint(feedId);
-        String bearerToken = getBearerToken(accessToken);
+        try {
+            return getFeedById(feedId, getBearerToken(accessToken));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 
-        logger.debug("Getting client Feed by id, FeedID: [{}]", feedId);
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedId The feedId of the requested feed.
+     * @return A Feed that matches that feedId or null if it doesn't exists.
+     */
+    public Feed getFeedById(final String feedId) {
 
-        try {
-            String response = HttpUtils.getJson(url, bearerToken);
+        return authenticated(bearerToken -> getFeedById(feedId, bearerToken));
+    }
 
-            // Map JSON response to POJO
-            Gson gson = new Gson();
-            Feed feedResponse = gson.fromJson(response, Feed.class);
+    private Feed getFeedById(final String feedId,
+                             final AuthorizationHeader bearerToken)
+            throws IOException {
 
-            return feedResponse;
+        String url = this.apiEndpointProvider.getFeedByIdEndpoint(feedId);
 
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+        logger.debug("Getting client Feed by id, FeedID: [{}]", feedId);
 
+        // Map JSON response to POJO
+        Feed feedResponse = read(url, bearerToken.getValue(), Feed.class);
+
+        return feedResponse;
     }
 
     /**
@@ -173,26 +472,46 @@ public class AmazonHubCounterFeedAPI {
                                        final String documentId,
                                       final String accessToken) {
 
+        try {
+            return getOutputDocument(feedId, documentId,
+                    getBearerToken(accessToken));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedId     The feedId of the requested document.
+     * @param documentId The documentId of the requested document.
+     * @return An OutputDocument that matches that feedId and documentId or
+     * null if it doesn't exists.
+     */
+    public OutputDocument getOutputDocument(final String feedId,
+                                            final String documentId) {
+
+        return authenticated(bearerToken -> getOutputDocument(feedId,
+                documentId, bearerToken));
+    }
+
+    private OutputDocument getOutputDocument(final String feedId,
+                                             final String documentId,
+                                             final AuthorizationHeader
+                                                     bearerToken)
+            throws IOException {
+
         String url = this.apiEndpointProvider.getDocumentEndpoint(feedId,
                 documentId);
-        String bearerToken = getBearerToken(accessToken);
 
         logger.debug("Getting feed Output Document by id, FeedID: [{}] , "
                 + "DocumentID: [{}]", feedId, documentId);
 
-        try {
-            String response = HttpUtils.getJson(url, bearerToken);
-
-            // Map JSON response to POJO
-            Gson gson = new Gson();
-            OutputDocument document = gson.fromJson(response,
-                    OutputDocument.class);
+        // Map JSON response to POJO
+        OutputDocument document = read(url, bearerToken.getValue(),
+                OutputDocument.class);
 
-            return document;
-
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+        return document;
     }
 
     /**
@@ -205,28 +524,121 @@ public class AmazonHubCounterFeedAPI {
                                             final String documentId,
                                             final String accessToken) {
 
+        try {
+            return getInputDocument(feedId, documentId,
+                    getBearerToken(accessToken));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedId     The feedId of the requested document.
+     * @param documentId The documentId of the requested document.
+     * @return An AccessPointsFeedRequest representing the feed store request.
+     */
+    public AccessPointsFeedRequest getInputDocument(final String feedId,
+                                                    final String documentId) {
+
+        return authenticated(bearerToken -> getInputDocument(feedId,
+                documentId, bearerToken));
+    }
+
+    private AccessPointsFeedRequest getInputDocument(
+            final String feedId, final String documentId,
+            final AuthorizationHeader bearerToken) throws IOException {
+
         String url = this.apiEndpointProvider.getDocumentEndpoint(feedId,
                 documentId);
-        String bearerToken = getBearerToken(accessToken);
 
         logger.debug("Getting feed Input Document by id, FeedID: [{}] , "
                 + "DocumentID: [{}]", feedId, documentId);
 
-        try {
-            String response = HttpUtils.getJson(url, bearerToken);
+        // Map JSON response to POJO
+        AccessPointsFeedRequest request = read(url, bearerToken.getValue(),
+                AccessPointsFeedRequest.class);
 
-            // Map JSON response to POJO
-            Gson gson = new Gson();
-            AccessPointsFeedRequest request = gson.fromJson(response,
-                    AccessPointsFeedRequest.class);
+        return request;
+    }
 
-            return request;
+    /**
+     * Decodes the access points of an input document one at a time while
+     * the response is read, only the access point being processed is kept in
+     * memory. The stream holds the connection and has to be closed.
+     *
+     * @param feedId      The feedId of the requested document.
+     * @param documentId  The documentId of the requested document.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return The access points of the feed store request, reading them
+     * throws an {@link UncheckedIOException} if the response fails.
+     */
+    public Stream<AccessPoint> streamInputDocument(final String feedId,
+                                                   final String documentId,
+                                                   final String accessToken) {
 
+        try {
+            return streamInputDocument(feedId, documentId,
+                    getBearerToken(accessToken));
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedId     The feedId of the requested document.
+     * @param documentId The documentId of the requested document.
+     * @return The access points of the feed store request, the stream has to
+     * be closed.
+     * @see #streamInputDocument(String, String, String)
+     */
+    public Stream<AccessPoint> streamInputDocument(final String feedId,
+                                                   final String documentId) {
+
+        return authenticated(bearerToken -> streamInputDocument(feedId,
+                documentId, bearerToken));
+    }
+
+    private Stream<AccessPoint> streamInputDocument(
+            final String feedId, final String documentId,
+            final AuthorizationHeader bearerToken) throws IOException {
+
+        String url = this.apiEndpointProvider.getDocumentEndpoint(feedId,
+                documentId);
+
+        logger.debug("Streaming feed Input Document by id, FeedID: [{}] , "
+                + "DocumentID: [{}]", feedId, documentId);
+
+        // Not shared with concurrent reads, each stream owns its response.
+        HttpResponse response = HttpUtils.sendGet(this.httpTransport, url,
+                bearerToken.getValue());
+
+        try {
+            Iterator<AccessPoint> accessPoints = JsonCodecs.getDefault()
+                    .readArray(response.getBody(), ACCESS_POINTS_FIELD,
+                            AccessPoint.class);
+
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                    accessPoints, Spliterator.ORDERED | Spliterator.NONNULL),
+                    false).onClose(() -> close(response));
+        } catch (IOException | RuntimeException ex) {
+            response.close();
+            throw ex;
+        }
+    }
+
+    private static void close(final HttpResponse response) {
+
+        try {
+            response.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     /**
      * @param accessPointsFeedPost The object containing the list of feeds to be
      *                             submitted.
@@ -237,28 +649,81 @@ public class AmazonHubCounterFeedAPI {
     public String postFeed(final AccessPointsFeedRequest accessPointsFeedPost,
                            final FeedType feedType, final String accessToken) {
 
-        String url = this.apiEndpointProvider.postFeedEndpoint(feedType);
-        String json = accessPointsFeedPost.toJson();
+        try {
+            return postFeed(accessPointsFeedPost, feedType,
+                    getBearerToken(accessToken));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler. A feed
+     * rejected for its accessToken is sent again with a new one.
+     *
+     * @param accessPointsFeedPost The object containing the list of feeds to
+     *                             be submitted.
+     * @param feedType             The type of feed to submit
+     *                             (STORE_FEED|THIRD_PARTY_FEED)
+     * @return The feedId of the created feed.
+     */
+    public String postFeed(final AccessPointsFeedRequest accessPointsFeedPost,
+                           final FeedType feedType) {
+
+        return authenticated(bearerToken -> postFeed(accessPointsFeedPost,
+                feedType, bearerToken));
+    }
 
-        String bearerToken = getBearerToken(accessToken);
+    private String postFeed(final AccessPointsFeedRequest accessPointsFeedPost,
+                            final FeedType feedType,
+                            final AuthorizationHeader bearerToken)
+            throws IOException {
+
+        String url = this.apiEndpointProvider.postFeedEndpoint(feedType);
+        RequestBody body = RequestBody.stream(HttpUtils.JSON_CONTENT_TYPE,
+                accessPointsFeedPost::writeJson);
 
         logger.debug("Creating Feed.");
 
-        try {
+        HttpResponse response = HttpUtils.sendPost(this.httpTransport,
+                url, body, bearerToken.getValue());
+        Map obj = readJson(response, Map.class);
+        String feedId = obj.get("feedId").toString();
 
-            String response = HttpUtils.postJson(url, json, bearerToken);
-            Gson gson = new Gson();
-            Map obj = gson.fromJson(response, Map.class);
-            String feedId = obj.get("feedId").toString();
+        logger.info("Created Feed with FeedID: [{}]", feedId);
 
-            logger.info("Created Feed with FeedID: [{}]", feedId);
+        return feedId;
+    }
 
-            return feedId;
+    /**
+     * An accessToken and the value of the Authorization header sent with it.
+     */
+    private static final class AuthorizationHeader {
 
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
+        private final String token;
+        private final String value;
+
+        private AuthorizationHeader(final String token) {
+            this.token = token;
+            this.value = AUTH_TOKEN_PREFIX + token;
+        }
+
+        private String getToken() {
+            return token;
+        }
+
+        private String getValue() {
+            return value;
         }
+    }
+
+    /**
+     * A request sent with the given Authorization header.
+     */
+    @FunctionalInterface
+    private interface AuthenticatedCall<T> {
 
+        T call(AuthorizationHeader bearerToken) throws IOException;
     }
 
     /**
@@ -269,5 +734,22 @@ public class AmazonHubCounterFeedAPI {
         return apiEndpoint;
     }
 
+    /**
+     * @return Returns the transport used to send the requests.
+     */
+    public HttpTransport getHttpTransport() {
+
+        return httpTransport;
+    }
+
+    /**
+     * @return Returns the number of reads that shared the response of an
+     * identical read in flight.
+     */
+    public long getCoalescedReads() {
+
+        return inFlightReads.getSharedCalls();
+    }
+
 
 }
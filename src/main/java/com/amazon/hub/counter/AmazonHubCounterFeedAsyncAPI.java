@@ -0,0 +1,474 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedDetails;
+import com.amazon.hub.counter.entities.FeedRecordDocument;
+import com.amazon.hub.counter.entities.FeedSyncResult;
+import com.amazon.hub.counter.entities.FeedType;
+import com.amazon.hub.counter.entities.FeedWatermark;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.entities.OutputDocument;
+import com.amazon.hub.counter.helpers.ConcurrencyLimitedExecutor;
+import com.amazon.hub.counter.helpers.DaemonThreadFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Asynchronous version of {@link AmazonHubCounterFeedAPI}, every operation
+ * returns a CompletableFuture instead of blocking the caller.
+ * <p>
+ * The number of requests in flight is bounded by the maxConcurrency setting,
+ * requests over the limit are queued without holding a thread until a
+ * running request completes. The requests are sent by the blocking
+ * {@link AmazonHubCounterFeedAPI}, every request in flight holds a thread
+ * until its response is read.
+ */
+public class AmazonHubCounterFeedAsyncAPI implements Closeable {
+
+    private final AmazonHubCounterFeedAPI api;
+    private final ConcurrencyLimitedExecutor executor;
+    private final ExecutorService ownedExecutorService;
+
+    /**
+     * @param api            The API handler used to send the requests.
+     * @param maxConcurrency Maximum number of requests in flight, and of
+     *                       threads created by this handler. The threads
+     *                       stop after being idle for a minute.
+     */
+    public AmazonHubCounterFeedAsyncAPI(final AmazonHubCounterFeedAPI api,
+                                        final int maxConcurrency) {
+
+        this.api = api;
+        // Bounded by the limiter, which hands queued requests to the threads
+        // finishing theirs.
+        this.ownedExecutorService = Executors.newCachedThreadPool(
+                new DaemonThreadFactory("amazon-hub-counter-async"));
+        this.executor = new ConcurrencyLimitedExecutor(
+                this.ownedExecutorService, maxConcurrency);
+    }
+
+    /**
+     * @param api            The API handler used to send the requests.
+     * @param executor       The executor running the requests, it is not
+     *                       shut down when this handler is closed. It can
+     *                       be shared, this handler uses at most
+     *                       maxConcurrency of its threads.
+     * @param maxConcurrency Maximum number of requests in flight.
+     */
+    public AmazonHubCounterFeedAsyncAPI(final AmazonHubCounterFeedAPI api,
+                                        final Executor executor,
+                                        final int maxConcurrency) {
+
+        this.api = api;
+        this.ownedExecutorService = null;
+        this.executor = new ConcurrencyLimitedExecutor(executor,
+                maxConcurrency);
+    }
+
+    /**
+     * @return A future completed with a valid accessToken.
+     * @see AmazonHubCounterFeedAPI#getAccessToken()
+     */
+    public CompletableFuture<String> getAccessToken() {
+
+        return submit(api::getAccessToken);
+    }
+
+    /**
+     * @param nextOffset  The pagination page id.
+     * @param pageSize    Defines the size of the pagination of the results,
+     *                    default: 50, max_value: 100.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with a page of the feeds of this client.
+     * @see AmazonHubCounterFeedAPI#getFeeds(String, Integer, String)
+     */
+    public CompletableFuture<FeedsResponse> getFeeds(final String nextOffset,
+                                                     final Integer pageSize,
+                                                     final String accessToken) {
+
+        return submit(() -> api.getFeeds(nextOffset, pageSize, accessToken));
+    }
+
+    /**
+     * @param nextOffset The pagination page id.
+     * @param pageSize   Defines the size of the pagination of the results,
+     *                   default: 50, max_value: 100.
+     * @return A future completed with a page of the feeds of this client.
+     * @see AmazonHubCounterFeedAPI#getFeeds(String, Integer)
+     */
+    public CompletableFuture<FeedsResponse> getFeeds(final String nextOffset,
+                                                     final Integer pageSize) {
+
+        return submit(() -> api.getFeeds(nextOffset, pageSize));
+    }
+
+    /**
+     * @param watermark   The watermark returned by the last synchronization.
+     * @param pageSize    Defines the size of the pagination of the results,
+     *                    default: 50, max_value: 100.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with the new feeds and the next watermark.
+     * @see AmazonHubCounterFeedAPI#syncFeeds(FeedWatermark, Integer, String)
+     */
+    public CompletableFuture<FeedSyncResult> syncFeeds(
+            final FeedWatermark watermark, final Integer pageSize,
+            final String accessToken) {
+
+        return submit(() -> api.syncFeeds(watermark, pageSize, accessToken));
+    }
+
+    /**
+     * @param watermark The watermark returned by the last synchronization.
+     * @param pageSize  Defines the size of the pagination of the results,
+     *                  default: 50, max_value: 100.
+     * @return A future completed with the new feeds and the next watermark.
+     * @see AmazonHubCounterFeedAPI#syncFeeds(FeedWatermark, Integer)
+     */
+    public CompletableFuture<FeedSyncResult> syncFeeds(
+            final FeedWatermark watermark, final Integer pageSize) {
+
+        return submit(() -> api.syncFeeds(watermark, pageSize));
+    }
+
+    /**
+     * Iterates the feeds of every page. The next pages are requested while
+     * the caller processes the current one, so the time to read all the
+     * feeds is bounded by the requests, not by the requests and the
+     * processing. Closing the stream stops requesting pages.
+     *
+     * @param pageSize      Defines the size of the pagination of the
+     *                      results, default: 50, max_value: 100.
+     * @param prefetchPages Maximum number of pages requested ahead of the
+     *                      page being processed, at least 1.
+     * @param accessToken   The Bearer token that authenticates the user.
+     * @return The feeds of this client, reading them throws the error of a
+     * failed page.
+     */
+    public Stream<Feed> streamFeeds(final Integer pageSize,
+                                    final int prefetchPages,
+                                    final String accessToken) {
+
+        return stream(new PrefetchingFeedIterator(nextOffset ->
+                getFeeds(nextOffset, pageSize, accessToken), prefetchPages));
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param pageSize      Defines the size of the pagination of the
+     *                      results, default: 50, max_value: 100.
+     * @param prefetchPages Maximum number of pages requested ahead of the
+     *                      page being processed, at least 1.
+     * @return The feeds of this client.
+     * @see #streamFeeds(Integer, int, String)
+     */
+    public Stream<Feed> streamFeeds(final Integer pageSize,
+                                    final int prefetchPages) {
+
+        return stream(new PrefetchingFeedIterator(nextOffset ->
+                getFeeds(nextOffset, pageSize), prefetchPages));
+    }
+
+    private static Stream<Feed> stream(final PrefetchingFeedIterator feeds) {
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(feeds,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(feeds::close);
+    }
+
+    /**
+     * @param feedId      The feedId of the requested feed.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with the Feed that matches that feedId.
+     * @see AmazonHubCounterFeedAPI#getFeedById(String, String)
+     */
+    public CompletableFuture<Feed> getFeedById(final String feedId,
+                                               final String accessToken) {
+
+        return submit(() -> api.getFeedById(feedId, accessToken));
+    }
+
+    /**
+     * @param feedId The feedId of the requested feed.
+     * @return A future completed with the Feed that matches that feedId.
+     * @see AmazonHubCounterFeedAPI#getFeedById(String)
+     */
+    public CompletableFuture<Feed> getFeedById(final String feedId) {
+
+        return submit(() -> api.getFeedById(feedId));
+    }
+
+    /**
+     * @param feedId      The feedId of the requested document.
+     * @param documentId  The documentId of the requested document.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with the OutputDocument that matches that
+     * feedId and documentId.
+     * @see AmazonHubCounterFeedAPI#getOutputDocument(String, String, String)
+     */
+    public CompletableFuture<OutputDocument> getOutputDocument(
+            final String feedId, final String documentId,
+            final String accessToken) {
+
+        return submit(() -> api.getOutputDocument(feedId, documentId,
+                accessToken));
+    }
+
+    /**
+     * @param feedId     The feedId of the requested document.
+     * @param documentId The documentId of the requested document.
+     * @return A future completed with the OutputDocument that matches that
+     * feedId and documentId.
+     * @see AmazonHubCounterFeedAPI#getOutputDocument(String, String)
+     */
+    public CompletableFuture<OutputDocument> getOutputDocument(
+            final String feedId, final String documentId) {
+
+        return submit(() -> api.getOutputDocument(feedId, documentId));
+    }
+
+    /**
+     * Requests a feed, then its output documents in parallel.
+     *
+     * @param feedId      The feedId of the requested feed.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with the Feed that matches that feedId
+     * joined with its output documents.
+     */
+    public CompletableFuture<FeedDetails> getFeedDetails(
+            final String feedId, final String accessToken) {
+
+        return getFeedById(feedId, accessToken).thenCompose(feed ->
+                withOutputDocuments(feed, documentId ->
+                        getOutputDocument(feedId, documentId, accessToken)));
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedId The feedId of the requested feed.
+     * @return A future completed with the Feed that matches that feedId
+     * joined with its output documents.
+     * @see #getFeedDetails(String, String)
+     */
+    public CompletableFuture<FeedDetails> getFeedDetails(
+            final String feedId) {
+
+        return getFeedById(feedId).thenCompose(feed ->
+                withOutputDocuments(feed, documentId ->
+                        getOutputDocument(feedId, documentId)));
+    }
+
+    /**
+     * Requests the details of every feed, keeping up to parallelism feeds in
+     * flight. The requests of all the feeds share the maxConcurrency limit
+     * of this handler. The feedIds are read as the results are taken, and
+     * closing the stream stops requesting feeds.
+     *
+     * @param feedIds     The feedIds of the requested feeds.
+     * @param parallelism Maximum number of feeds requested at the same
+     *                    time, at least 1.
+     * @param ordered     True to return the feeds in the order of the
+     *                    feedIds, false to return them as they complete.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return The feeds joined with their output documents, reading them
+     * throws the error of a failed feed.
+     */
+    public Stream<FeedDetails> streamFeedDetails(final Stream<String> feedIds,
+                                                 final int parallelism,
+                                                 final boolean ordered,
+                                                 final String accessToken) {
+
+        return stream(feedIds, new FanOutIterator<>(feedIds.iterator(),
+                feedId -> getFeedDetails(feedId, accessToken), parallelism,
+                ordered), ordered);
+    }
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param feedIds     The feedIds of the requested feeds.
+     * @param parallelism Maximum number of feeds requested at the same
+     *                    time, at least 1.
+     * @param ordered     True to return the feeds in the order of the
+     *                    feedIds, false to return them as they complete.
+     * @return The feeds joined with their output documents.
+     * @see #streamFeedDetails(Stream, int, boolean, String)
+     */
+    public Stream<FeedDetails> streamFeedDetails(final Stream<String> feedIds,
+                                                 final int parallelism,
+                                                 final boolean ordered) {
+
+        return stream(feedIds, new FanOutIterator<>(feedIds.iterator(),
+                this::getFeedDetails, parallelism, ordered), ordered);
+    }
+
+    private static CompletableFuture<FeedDetails> withOutputDocuments(
+            final Feed feed,
+            final Function<String, CompletableFuture<OutputDocument>> fetch) {
+
+        FeedRecordDocument[] documents = feed == null
+                || feed.getOutputDocuments() == null
+                ? new FeedRecordDocument[0] : feed.getOutputDocuments();
+        List<CompletableFuture<OutputDocument>> outputDocuments =
+                new ArrayList<>(documents.length);
+
+        for (FeedRecordDocument document : documents) {
+            outputDocuments.add(fetch.apply(document.getDocumentId()));
+        }
+
+        return CompletableFuture.allOf(outputDocuments.toArray(
+                new CompletableFuture<?>[0])).thenApply(ignored ->
+                FeedDetails.builder()
+                        .feed(feed)
+                        .outputDocuments(outputDocuments.stream()
+                                .map(CompletableFuture::join)
+                                .toArray(OutputDocument[]::new))
+                        .build());
+    }
+
+    private static Stream<FeedDetails> stream(
+            final Stream<String> feedIds,
+            final FanOutIterator<String, FeedDetails> details,
+            final boolean ordered) {
+
+        int characteristics = ordered
+                ? Spliterator.ORDERED | Spliterator.NONNULL
+                : Spliterator.NONNULL;
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                details, characteristics), false)
+                .onClose(details::close)
+                .onClose(feedIds::close);
+    }
+
+    /**
+     * @param feedId      The feedId of the requested document.
+     * @param documentId  The documentId of the requested document.
+     * @param accessToken The Bearer token that authenticates the user.
+     * @return A future completed with the AccessPointsFeedRequest
+     * representing the feed store request.
+     * @see AmazonHubCounterFeedAPI#getInputDocument(String, String, String)
+     */
+    public CompletableFuture<AccessPointsFeedRequest> getInputDocument(
+            final String feedId, final String documentId,
+            final String accessToken) {
+
+        return submit(() -> api.getInputDocument(feedId, documentId,
+                accessToken));
+    }
+
+    /**
+     * @param feedId     The feedId of the requested document.
+     * @param documentId The documentId of the requested document.
+     * @return A future completed with the AccessPointsFeedRequest
+     * representing the feed store request.
+     * @see AmazonHubCounterFeedAPI#getInputDocument(String, String)
+     */
+    public CompletableFuture<AccessPointsFeedRequest> getInputDocument(
+            final String feedId, final String documentId) {
+
+        return submit(() -> api.getInputDocument(feedId, documentId));
+    }
+
+    /**
+     * @param accessPointsFeedPost The object containing the list of feeds to be
+     *                             submitted.
+     * @param feedType             The type of feed to submit (STORE_FEED|THIRD_PARTY_FEED)
+     * @param accessToken          The Bearer token that authenticates the user.
+     * @return A future completed with the feedId of the created feed.
+     * @see AmazonHubCounterFeedAPI#postFeed(AccessPointsFeedRequest, FeedType,
+     * String)
+     */
+    public CompletableFuture<String> postFeed(
+            final AccessPointsFeedRequest accessPointsFeedPost,
+            final FeedType feedType, final String accessToken) {
+
+        return submit(() -> api.postFeed(accessPointsFeedPost, feedType,
+                accessToken));
+    }
+
+    /**
+     * @param accessPointsFeedPost The object containing the list of feeds to
+     *                             be submitted.
+     * @param feedType             The type of feed to submit
+     *                             (STORE_FEED|THIRD_PARTY_FEED)
+     * @return A future completed with the feedId of the created feed.
+     * @see AmazonHubCounterFeedAPI#postFeed(AccessPointsFeedRequest, FeedType)
+     */
+    public CompletableFuture<String> postFeed(
+            final AccessPointsFeedRequest accessPointsFeedPost,
+            final FeedType feedType) {
+
+        return submit(() -> api.postFeed(accessPointsFeedPost, feedType));
+    }
+
+    private <T> CompletableFuture<T> submit(final Supplier<T> operation) {
+
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    /**
+     * @return The number of requests in flight.
+     */
+    public int getActiveRequests() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return The number of requests waiting for a free slot.
+     */
+    public int getQueuedRequests() {
+        return executor.getQueuedCount();
+    }
+
+    /**
+     * @return The synchronous API handler used to send the requests.
+     */
+    public AmazonHubCounterFeedAPI getSyncApi() {
+        return api;
+    }
+
+    /**
+     * Shuts down the threads created by this handler, requests already
+     * submitted are completed.
+     */
+    @Override
+    public void close() {
+
+        if (ownedExecutorService != null) {
+            ownedExecutorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Maps the keys of an iterator with an asynchronous operation, keeping up to
+ * parallelism operations in flight. The results are returned in the order
+ * of the keys, or in the order the operations complete. A result waiting
+ * for its operation does not hold a thread.
+ * <p>
+ * The keys are read by the caller thread only, when a result is taken.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the results.
+ */
+final class FanOutIterator<K, V> implements Iterator<V>, Closeable {
+
+    private final Iterator<K> keys;
+    private final Function<K, CompletableFuture<V>> operation;
+    private final int parallelism;
+    private final boolean ordered;
+
+    // The operations started and not yet taken, in the order of the keys.
+    private final Deque<CompletableFuture<V>> started = new ArrayDeque<>();
+    // The operations completed and not yet taken, in completion order.
+    private final BlockingQueue<CompletableFuture<V>> completed =
+            new LinkedBlockingQueue<>();
+    private int inFlight;
+    private boolean closed;
+
+    /**
+     * @param keys        The keys to map.
+     * @param operation   Starts the operation of a key.
+     * @param parallelism Maximum number of operations in flight.
+     * @param ordered     True to return the results in the order of the
+     *                    keys, false to return them as they complete.
+     */
+    FanOutIterator(final Iterator<K> keys,
+                   final Function<K, CompletableFuture<V>> operation,
+                   final int parallelism,
+                   final boolean ordered) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "parallelism must be at least 1: " + parallelism);
+        }
+
+        this.keys = keys;
+        this.operation = operation;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        fill();
+        return inFlight > 0;
+    }
+
+    @Override
+    public V next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        CompletableFuture<V> result = ordered ? started.pollFirst() : take();
+        inFlight--;
+        fill();
+
+        return join(result);
+    }
+
+    /**
+     * Stops starting operations, the operations in flight are completed and
+     * discarded.
+     */
+    @Override
+    public void close() {
+
+        closed = true;
+        started.clear();
+        inFlight = 0;
+    }
+
+    /**
+     * @return The number of operations started and not yet taken.
+     */
+    int getInFlight() {
+        return inFlight;
+    }
+
+    private void fill() {
+
+        while (!closed && inFlight < parallelism && keys.hasNext()) {
+            CompletableFuture<V> result = operation.apply(keys.next());
+            inFlight++;
+            if (ordered) {
+                started.addLast(result);
+            } else {
+                result.whenComplete((value, error) -> completed.add(result));
+            }
+        }
+    }
+
+    private CompletableFuture<V> take() {
+
+        try {
+            return completed.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException(
+                    "Interrupted while waiting for an operation in flight."));
+        }
+    }
+
+    private static <V> V join(final CompletableFuture<V> result) {
+
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.helpers.DaemonThreadFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Waits for the submitted feeds to complete. Every watched feed is tracked
+ * by a single scheduler thread, and its status is polled through an
+ * {@link AmazonHubCounterFeedAsyncAPI}, so a waiting feed holds no thread.
+ * <p>
+ * A feed is first polled when it reaches the processing time expected from
+ * the feeds seen completing, then after a fraction of its age, so the feeds
+ * taking longer are polled less often. When many feeds already polled once
+ * are due at the same time, the pages of getFeeds listing them update all
+ * of them.
+ */
+public class FeedCompletionWatcher implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(
+            FeedCompletionWatcher.class.getName());
+
+    private static final String COMPLETED_STATUS = "Completed";
+    private static final String FAILED_STATUS = "Failed";
+
+    private final AmazonHubCounterFeedAsyncAPI asyncApi;
+    private final FeedWatcherPolicy policy;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    // The futures returned and not completed yet, read by close().
+    private final Set<CompletableFuture<Feed>> unfinished =
+            ConcurrentHashMap.newKeySet();
+
+    // Read and written by the scheduler thread only.
+    private final Map<String, Watch> watches = new HashMap<>();
+    private final PriorityQueue<Watch> pending = new PriorityQueue<>(
+            Comparator.comparingLong(watch -> watch.nextPollMillis));
+    private volatile double expectedProcessingMillis;
+
+    private final AtomicLong feedRequests = new AtomicLong();
+    private final AtomicLong listRequests = new AtomicLong();
+    private volatile int watchedFeeds;
+
+    /**
+     * @param asyncApi The API handler used to poll the feeds, the
+     *                 accessToken is obtained and renewed by it.
+     * @param policy   The polling settings.
+     */
+    public FeedCompletionWatcher(final AmazonHubCounterFeedAsyncAPI asyncApi,
+                                 final FeedWatcherPolicy policy) {
+
+        this(asyncApi, policy, System::currentTimeMillis);
+    }
+
+    /**
+     * @param asyncApi The API handler used to poll the feeds.
+     * @param policy   The polling settings.
+     * @param clock    Returns the current time in milliseconds.
+     */
+    FeedCompletionWatcher(final AmazonHubCounterFeedAsyncAPI asyncApi,
+                          final FeedWatcherPolicy policy,
+                          final LongSupplier clock) {
+
+        this.asyncApi = asyncApi;
+        this.policy = policy;
+        this.clock = clock;
+        this.expectedProcessingMillis = policy.getInitialProcessingMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new DaemonThreadFactory("amazon-hub-counter-feed-watcher"));
+        this.scheduler.scheduleWithFixedDelay(this::tick,
+                policy.getTickMillis(), policy.getTickMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Watches a feed until its status is Completed or Failed. Watching a
+     * feed already watched returns a future completed with the same feed.
+     * Cancelling the future stops watching the feed.
+     *
+     * @param feedId The feedId returned by postFeed.
+     * @return A future completed with the feed once it is processed.
+     */
+    public CompletableFuture<Feed> watch(final String feedId) {
+
+        long now = clock.getAsLong();
+        CompletableFuture<Feed> future = new CompletableFuture<>();
+        unfinished.add(future);
+        future.whenComplete((feed, error) -> unfinished.remove(future));
+
+        try {
+            scheduler.execute(() -> register(feedId, future, now));
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(new IllegalStateException(
+                    "The feed watcher is closed.", ex));
+        }
+
+        return future;
+    }
+
+    /**
+     * @return The number of feeds being watched.
+     */
+    public int getWatchedFeeds() {
+        return watchedFeeds;
+    }
+
+    /**
+     * @return The processing time in milliseconds expected from the feeds
+     * seen completing.
+     */
+    public long getExpectedProcessingMillis() {
+        return (long) expectedProcessingMillis;
+    }
+
+    /**
+     * @return The number of getFeedById requests sent.
+     */
+    public long getFeedRequests() {
+        return feedRequests.get();
+    }
+
+    /**
+     * @return The number of getFeeds requests sent.
+     */
+    public long getListRequests() {
+        return listRequests.get();
+    }
+
+    /**
+     * Stops watching, the futures of the feeds still watched are cancelled
+     * when this method returns.
+     */
+    @Override
+    public void close() {
+
+        // Once shut down, watch() rejects the feeds it has not registered,
+        // so every future returned before is in unfinished.
+        scheduler.shutdownNow();
+        for (CompletableFuture<Feed> future : new ArrayList<>(unfinished)) {
+            future.cancel(false);
+        }
+        watchedFeeds = 0;
+    }
+
+    /**
+     * Looks for the feeds due for a poll at once, instead of waiting for the
+     * next tick.
+     *
+     * @return A future completed once the polls sent by this tick have been
+     * handled.
+     */
+    CompletableFuture<Void> tickNow() {
+
+        return CompletableFuture.supplyAsync(this::tick, scheduler)
+                .thenCompose(polls -> polls);
+    }
+
+    private void register(final String feedId,
+                          final CompletableFuture<Feed> future,
+                          final long now) {
+
+        Watch watch = watches.get(feedId);
+
+        if (watch == null) {
+            watch = new Watch(feedId, now);
+            watches.put(feedId, watch);
+            watchedFeeds = watches.size();
+            schedule(watch, now);
+        }
+
+        watch.futures.add(future);
+    }
+
+    private CompletableFuture<Void> tick() {
+
+        long now = clock.getAsLong();
+        List<Watch> listed = new ArrayList<>();
+        List<Watch> polled = new ArrayList<>();
+
+        while (!pending.isEmpty() && pending.peek().nextPollMillis <= now) {
+            Watch watch = pending.poll();
+
+            if (watch.done) {
+                continue;
+            }
+            watch.futures.removeIf(CompletableFuture::isDone);
+            if (watch.futures.isEmpty()) {
+                remove(watch);
+            } else if (policy.getTimeoutMillis() > 0
+                    && now - watch.startMillis > policy.getTimeoutMillis()) {
+                complete(watch, null, new TimeoutException("The feed "
+                        + watch.feedId + " is still processing."));
+            } else if (watch.createDate != null) {
+                listed.add(watch);
+            } else {
+                // The createDate locating the feed in the pages is unknown.
+                polled.add(watch);
+            }
+        }
+
+        if (listed.size() < policy.getListThreshold()) {
+            polled.addAll(listed);
+            listed.clear();
+        }
+
+        List<CompletableFuture<Void>> polls = new ArrayList<>();
+        if (!listed.isEmpty()) {
+            polls.add(list(listed, null, 1));
+        }
+        polled.forEach(watch -> polls.add(poll(watch)));
+
+        return CompletableFuture.allOf(
+                polls.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private CompletableFuture<Void> poll(final Watch watch) {
+
+        feedRequests.incrementAndGet();
+        return asyncApi.getFeedById(watch.feedId).handleAsync(
+                (feed, error) -> {
+                    onFeed(watch, feed, error);
+                    return null;
+                }, scheduler);
+    }
+
+    private CompletableFuture<Void> pollAll(final List<Watch> due) {
+
+        return CompletableFuture.allOf(due.stream()
+                .filter(watch -> !watch.done)
+                .map(this::poll)
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    private CompletableFuture<Void> list(final List<Watch> due,
+                                         final String nextOffset,
+                                         final int pageNumber) {
+
+        listRequests.incrementAndGet();
+        return asyncApi.getFeeds(nextOffset, policy.getListPageSize())
+                .handleAsync((page, error) -> onPage(due, page, error,
+                        pageNumber), scheduler)
+                .thenCompose(polls -> polls);
+    }
+
+    private void onFeed(final Watch watch, final Feed feed,
+                        final Throwable error) {
+
+        if (watch.done) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+
+        if (error != null) {
+            if (++watch.errors >= policy.getMaxErrors()) {
+                complete(watch, null, unwrap(error));
+            } else {
+                logger.debug("Polling the feed [{}] failed.", watch.feedId);
+                schedule(watch, now);
+            }
+            return;
+        }
+
+        watch.errors = 0;
+        update(watch, feed, now);
+    }
+
+    private CompletableFuture<Void> onPage(final List<Watch> due,
+                                           final FeedsResponse page,
+                                           final Throwable error,
+                                           final int pageNumber) {
+
+        Feed[] records = page == null ? null : page.getRecords();
+
+        if (error != null || records == null || records.length == 0) {
+            // Each feed is polled on its own instead.
+            return pollAll(due);
+        }
+
+        long now = clock.getAsLong();
+        Map<String, Feed> feeds = new HashMap<>();
+        for (Feed feed : records) {
+            feeds.put(feed.getFeedId(), feed);
+        }
+
+        List<Watch> missing = new ArrayList<>();
+        for (Watch watch : due) {
+            Feed feed = feeds.get(watch.feedId);
+            if (watch.done) {
+                continue;
+            } else if (feed == null) {
+                missing.add(watch);
+            } else {
+                update(watch, feed, now);
+            }
+        }
+
+        // The page also completes the watched feeds not due yet.
+        for (Watch watch : new ArrayList<>(watches.values())) {
+            Feed feed = feeds.get(watch.feedId);
+            if (isProcessed(feed)) {
+                complete(watch, feed, null);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The feeds are listed from the newest, the missing feeds are on
+        // the next pages unless this page already reached older feeds.
+        long oldest = missing.stream().mapToLong(watch -> watch.createDate)
+                .min().getAsLong();
+        Long lastCreateDate = records[records.length - 1].getCreateDate();
+        String nextOffset = page.getNextOffset();
+
+        // An old feed behind many newer ones is cheaper to poll on its own.
+        if (nextOffset == null || nextOffset.isEmpty()
+                || (lastCreateDate != null && lastCreateDate < oldest)
+                || pageNumber >= policy.getMaxListPages()) {
+            return pollAll(missing);
+        }
+
+        return list(missing, nextOffset, pageNumber + 1);
+    }
+
+    private void update(final Watch watch, final Feed feed, final long now) {
+
+        if (feed.getCreateDate() != null) {
+            watch.createDate = feed.getCreateDate();
+            if (feed.getCreateDate() <= now) {
+                // The age is counted from the submission of the feed.
+                watch.startMillis = Math.min(watch.startMillis,
+                        feed.getCreateDate());
+            }
+        }
+
+        if (isProcessed(feed)) {
+            observe((watch.lastPendingMillis + now) / 2 - watch.startMillis);
+            complete(watch, feed, null);
+        } else {
+            watch.lastPendingMillis = now;
+            schedule(watch, now);
+        }
+    }
+
+    // The processing ended between the last poll that saw the feed pending
+    // and this one. A feed watched long after its submission counts as at
+    // most twice the expected time.
+    private void observe(final long processingMillis) {
+
+        double smoothing = policy.getSmoothingFactor();
+        double observed = Math.min(2 * expectedProcessingMillis,
+                Math.max(0, processingMillis));
+        expectedProcessingMillis = (1 - smoothing) * expectedProcessingMillis
+                + smoothing * observed;
+    }
+
+    private void schedule(final Watch watch, final long now) {
+
+        long age = now - watch.startMillis;
+        long expected = (long) expectedProcessingMillis;
+        long delay = age < expected ? expected - age
+                : (long) (age * policy.getBackoffRatio());
+
+        watch.nextPollMillis = now + Math.min(policy.getMaxDelayMillis(),
+                Math.max(policy.getMinDelayMillis(), delay));
+        pending.add(watch);
+    }
+
+    private void complete(final Watch watch, final Feed feed,
+                          final Throwable error) {
+
+        remove(watch);
+        for (CompletableFuture<Feed> future : watch.futures) {
+            if (error == null) {
+                future.complete(feed);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void remove(final Watch watch) {
+
+        watch.done = true;
+        watches.remove(watch.feedId);
+        watchedFeeds = watches.size();
+    }
+
+    private static boolean isProcessed(final Feed feed) {
+
+        return feed != null && (COMPLETED_STATUS.equals(feed.getStatus())
+                || FAILED_STATUS.equals(feed.getStatus()));
+    }
+
+    private static Throwable unwrap(final Throwable error) {
+
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+    }
+
+    private static final class Watch {
+
+        private final String feedId;
+        private final List<CompletableFuture<Feed>> futures =
+                new ArrayList<>(1);
+        private long startMillis;
+        // The createDate returned by the API, null until the first poll.
+        private Long createDate;
+        private long lastPendingMillis;
+        private long nextPollMillis;
+        private int errors;
+        private boolean done;
+
+        private Watch(final String feedId, final long startMillis) {
+            this.feedId = feedId;
+            this.startMillis = startMillis;
+            this.lastPendingMillis = startMillis;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link FeedCompletionWatcher}.
+ */
+@Getter
+@Builder
+public class FeedWatcherPolicy {
+    /**
+     * Interval in milliseconds at which the watcher looks for the feeds due
+     * for a poll.
+     */
+    @Builder.Default
+    private final long tickMillis = 250;
+    /**
+     * Processing time in milliseconds expected before any feed has been
+     * seen completing.
+     */
+    @Builder.Default
+    private final long initialProcessingMillis = 10_000;
+    /**
+     * Weight, between 0 and 1, of each observed processing time in the
+     * expected processing time.
+     */
+    @Builder.Default
+    private final double smoothingFactor = 0.2;
+    /**
+     * Ratio of the age of a feed, once older than the expected processing
+     * time, waited before polling it again.
+     */
+    @Builder.Default
+    private final double backoffRatio = 0.5;
+    /**
+     * Lower bound in milliseconds of the wait between two polls of a feed.
+     */
+    @Builder.Default
+    private final long minDelayMillis = 1_000;
+    /**
+     * Upper bound in milliseconds of the wait between two polls of a feed.
+     */
+    @Builder.Default
+    private final long maxDelayMillis = 60_000;
+    /**
+     * Number of feeds already polled once and due at the same time from
+     * which the pages of getFeeds listing them are requested instead of a
+     * getFeedById per feed.
+     */
+    @Builder.Default
+    private final int listThreshold = 5;
+    /**
+     * Page size of the getFeeds requests, max_value: 100.
+     */
+    @Builder.Default
+    private final int listPageSize = 100;
+    /**
+     * Maximum number of pages of getFeeds requested per tick, the feeds not
+     * found in them are polled with a getFeedById each.
+     */
+    @Builder.Default
+    private final int maxListPages = 3;
+    /**
+     * Number of consecutive failed polls of a feed after which its future
+     * completes with the error.
+     */
+    @Builder.Default
+    private final int maxErrors = 3;
+    /**
+     * Time in milliseconds after which a feed still processing completes
+     * its future with a TimeoutException, 0 to wait forever.
+     */
+    @Builder.Default
+    private final long timeoutMillis = 3_600_000;
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedsResponse;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Iterates the feeds of every page, following the nextOffset of each page.
+ * The next pages are requested as soon as the previous page arrives, while
+ * the caller processes the current page, up to prefetchPages pages ahead.
+ * A page waiting for its request does not hold a thread.
+ */
+final class PrefetchingFeedIterator implements Iterator<Feed>, Closeable {
+
+    private static final Feed[] NO_FEEDS = new Feed[0];
+
+    private final Function<String, CompletableFuture<FeedsResponse>> fetch;
+    private final int prefetchPages;
+
+    // The pages requested and not yet taken by the caller, guarded by this.
+    private final Deque<CompletableFuture<FeedsResponse>> pages =
+            new ArrayDeque<>();
+    private CompletableFuture<FeedsResponse> lastPage;
+    private boolean closed;
+
+    // Read by the caller thread only.
+    private Feed[] records = NO_FEEDS;
+    private int index;
+
+    /**
+     * @param fetch         Requests the page at a nextOffset, null for the
+     *                      first page.
+     * @param prefetchPages Maximum number of pages requested ahead of the
+     *                      page being processed.
+     */
+    PrefetchingFeedIterator(
+            final Function<String, CompletableFuture<FeedsResponse>> fetch,
+            final int prefetchPages) {
+
+        if (prefetchPages < 1) {
+            throw new IllegalArgumentException(
+                    "prefetchPages must be at least 1: " + prefetchPages);
+        }
+
+        this.fetch = fetch;
+        this.prefetchPages = prefetchPages;
+
+        synchronized (this) {
+            request(null);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        while (index >= records.length) {
+            CompletableFuture<FeedsResponse> page;
+            synchronized (this) {
+                page = pages.pollFirst();
+                if (page == null) {
+                    return false;
+                }
+            }
+
+            FeedsResponse response = join(page);
+            records = response == null || response.getRecords() == null
+                    ? NO_FEEDS : response.getRecords();
+            index = 0;
+
+            synchronized (this) {
+                prefetch();
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Feed next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return records[index++];
+    }
+
+    /**
+     * Stops requesting pages, the requests in flight are completed and
+     * discarded.
+     */
+    @Override
+    public synchronized void close() {
+
+        closed = true;
+        pages.clear();
+    }
+
+    /**
+     * @return The number of pages requested and not yet taken.
+     */
+    synchronized int getPrefetchedPages() {
+        return pages.size();
+    }
+
+    // Called holding the lock.
+    private void request(final String nextOffset) {
+
+        CompletableFuture<FeedsResponse> page = fetch.apply(nextOffset);
+        lastPage = page;
+        pages.addLast(page);
+        page.whenComplete((response, error) -> {
+            synchronized (this) {
+                prefetch();
+            }
+        });
+    }
+
+    // Called holding the lock, requests the page following the last one
+    // once it has arrived, while there is room.
+    private void prefetch() {
+
+        CompletableFuture<FeedsResponse> page = lastPage;
+
+        if (closed || pages.size() >= prefetchPages || !page.isDone()
+                || page.isCompletedExceptionally()) {
+            return;
+        }
+
+        FeedsResponse response = page.join();
+        String nextOffset = response == null ? null
+                : response.getNextOffset();
+
+        if (nextOffset != null && !nextOffset.isEmpty()) {
+            request(nextOffset);
+        }
+    }
+
+    private static FeedsResponse join(
+            final CompletableFuture<FeedsResponse> page) {
+
+        try {
+            return page.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.codegen;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads the scalar fields for the generated adapters, accepting the same
+ * values as the Gson default adapters.
+ */
+public final class GeneratedAdapterSupport {
+
+    private GeneratedAdapterSupport() {
+        throw new IllegalStateException("Cannot instantiate utility class.");
+    }
+
+    /**
+     * @param in The reader.
+     * @return True if the next value was a null, it is consumed.
+     * @throws IOException If the reader fails.
+     */
+    public static boolean nextNull(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param in The reader.
+     * @return The next string, number or boolean as a string, or null.
+     * @throws IOException If the reader fails.
+     */
+    public static String readString(final JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    /**
+     * @param in The reader.
+     * @return The next number or numeric string, or null.
+     * @throws IOException If the reader fails.
+     */
+    public static Integer readInteger(final JsonReader in)
+            throws IOException {
+        if (nextNull(in)) {
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException ex) {
+            throw new JsonSyntaxException(ex);
+        }
+    }
+
+    /**
+     * @param in The reader.
+     * @return The next number or numeric string, or null.
+     * @throws IOException If the reader fails.
+     */
+    public static Long readLong(final JsonReader in) throws IOException {
+        if (nextNull(in)) {
+            return null;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException ex) {
+            throw new JsonSyntaxException(ex);
+        }
+    }
+
+    /**
+     * @param in The reader.
+     * @return The next boolean or boolean string, or null.
+     * @throws IOException If the reader fails.
+     */
+    public static Boolean readBoolean(final JsonReader in)
+            throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
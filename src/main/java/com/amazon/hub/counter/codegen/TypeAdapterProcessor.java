@@ -0,0 +1,661 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.codegen;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the TypeAdapter of the classes annotated with
+ * {@link GenerateTypeAdapter}.
+ * The adapter writes the fields in declaration order with the getters, or
+ * directly the fields that are not private, and reads them into the
+ * all-args constructor generated by Lombok for the builder, it runs after
+ * Lombok in the same compilation. An object missing
+ * one of the {@code @NonNull} fields the constructor checks is written again
+ * from the fields read and given to the legacy adapter. The supported
+ * fields are String, Integer, Long, Boolean, the annotated classes and
+ * arrays of them. A field annotated with {@link JsonAdapter} is written and
+ * read by its TypeAdapter, as Gson does.
+ */
+@SupportedAnnotationTypes("com.amazon.hub.counter.codegen.GenerateTypeAdapter")
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+    private static final String NON_NULL = "lombok.NonNull";
+    private static final String JSON_ADAPTER = JsonAdapter.class.getName();
+    private static final String SUPPORT =
+            GeneratedAdapterSupport.class.getSimpleName();
+
+    /**
+     * The JSON types of the fields.
+     */
+    private enum Kind {
+        STRING("readString"),
+        INTEGER("readInteger"),
+        LONG("readLong"),
+        BOOLEAN("readBoolean"),
+        OBJECT(null);
+
+        private final String reader;
+
+        Kind(final String reader) {
+            this.reader = reader;
+        }
+    }
+
+    /**
+     * A field written to and read from the JSON object.
+     */
+    private static final class Property {
+        private String field;
+        private String jsonName;
+        private List<String> alternateNames;
+        private boolean array;
+        private Kind kind;
+        private TypeElement entity;
+        private boolean required;
+        // Written from the field instead of the getter.
+        private boolean direct;
+        // The TypeAdapter class and field type of a @JsonAdapter field.
+        private String adapter;
+        private String javaType;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+                           final RoundEnvironment roundEnv) {
+
+        Set<? extends Element> elements =
+                roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class);
+
+        for (Element element : elements) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateTypeAdapter only applies to classes");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Property> properties = properties(type);
+            if (properties == null) {
+                continue;
+            }
+            try {
+                generate(type, properties);
+            } catch (IOException ex) {
+                error(type, "Could not write the TypeAdapter: "
+                        + ex.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    private List<Property> properties(final TypeElement type) {
+
+        List<Property> properties = new ArrayList<>();
+        boolean valid = true;
+
+        for (Element member : type.getEnclosedElements()) {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (member.getKind() != ElementKind.FIELD
+                    || modifiers.contains(Modifier.STATIC)
+                    || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+
+            VariableElement field = (VariableElement) member;
+            Property property = new Property();
+            property.field = field.getSimpleName().toString();
+            property.jsonName = property.field;
+            property.alternateNames = Collections.emptyList();
+            SerializedName serializedName =
+                    field.getAnnotation(SerializedName.class);
+            if (serializedName != null) {
+                property.jsonName = serializedName.value();
+                property.alternateNames = new ArrayList<>();
+                Collections.addAll(property.alternateNames,
+                        serializedName.alternate());
+            }
+
+            property.required = isRequired(field);
+            property.direct = !modifiers.contains(Modifier.PRIVATE);
+
+            TypeMirror fieldType = field.asType();
+            property.adapter = jsonAdapter(field);
+            if (property.adapter != null) {
+                property.javaType = sourceName(fieldType);
+                properties.add(property);
+                continue;
+            }
+            if (fieldType.getKind() == TypeKind.ARRAY) {
+                property.array = true;
+                fieldType = ((ArrayType) fieldType).getComponentType();
+            }
+            if (!resolve(property, fieldType)) {
+                error(field, "Unsupported field type " + field.asType());
+                valid = false;
+            }
+            properties.add(property);
+        }
+
+        return valid ? properties : null;
+    }
+
+    /**
+     * @return The TypeAdapter class of a field annotated with
+     * {@link JsonAdapter}, or null.
+     */
+    private static String jsonAdapter(final VariableElement field) {
+
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString()
+                    .equals(JSON_ADAPTER)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement,
+                    ? extends AnnotationValue> value
+                    : annotation.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value")) {
+                    return value.getValue().getValue().toString();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private boolean resolve(final Property property, final TypeMirror type) {
+
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.String":
+                property.kind = Kind.STRING;
+                return true;
+            case "java.lang.Integer":
+                property.kind = Kind.INTEGER;
+                return true;
+            case "java.lang.Long":
+                property.kind = Kind.LONG;
+                return true;
+            case "java.lang.Boolean":
+                property.kind = Kind.BOOLEAN;
+                return true;
+            default:
+                if (element.getAnnotation(GenerateTypeAdapter.class) == null) {
+                    return false;
+                }
+                property.kind = Kind.OBJECT;
+                property.entity = element;
+                return true;
+        }
+    }
+
+    private static boolean isRequired(final VariableElement field) {
+
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().equals(NON_NULL)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void generate(final TypeElement type,
+                          final List<Property> properties)
+            throws IOException {
+
+        PackageElement pkg = processingEnv.getElementUtils()
+                .getPackageOf(type);
+        String packageName = pkg.getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String adapterName = typeName + "TypeAdapter";
+
+        // The adapters of the entity fields, by type, read through Gson.
+        Map<String, String> entities = new LinkedHashMap<>();
+        boolean arrays = false;
+        boolean required = false;
+        for (Property property : properties) {
+            if (property.adapter == null && property.kind == Kind.OBJECT) {
+                entities.put(name(pkg, property), decapitalize(
+                        property.entity.getSimpleName() + "Adapter"));
+            }
+            arrays |= property.adapter == null && property.array;
+            required |= property.required;
+        }
+
+        Source out = new Source();
+        out.line("package %s;", packageName);
+        out.line("");
+        out.line("import com.amazon.hub.counter.codegen.%s;", SUPPORT);
+        if (!entities.isEmpty()) {
+            out.line("import com.google.gson.Gson;");
+        }
+        out.line("import com.google.gson.TypeAdapter;");
+        out.line("import com.google.gson.stream.JsonReader;");
+        out.line("import com.google.gson.stream.JsonWriter;");
+        out.line("");
+        out.line("import java.io.IOException;");
+        if (required) {
+            out.line("import java.io.StringWriter;");
+        }
+        if (arrays) {
+            out.line("import java.util.ArrayList;");
+            out.line("import java.util.List;");
+        }
+        out.line("");
+        out.line("/**");
+        out.line(" * Encodes %s, generated by %s.", typeName,
+                TypeAdapterProcessor.class.getSimpleName());
+        out.line(" */");
+        out.open("public final class %s extends TypeAdapter<%s> {",
+                adapterName, typeName);
+
+        for (Property property : properties) {
+            if (property.adapter != null) {
+                out.line("");
+                out.line("private static final TypeAdapter<%s> %s =",
+                        property.javaType, adapterField(property));
+                out.line("        new %s().nullSafe();", property.adapter);
+            }
+        }
+
+        if (!entities.isEmpty() || required) {
+            out.line("");
+            for (Map.Entry<String, String> entity : entities.entrySet()) {
+                out.line("private final TypeAdapter<%s> %s;",
+                        entity.getKey(), entity.getValue());
+            }
+            if (required) {
+                out.line("private final TypeAdapter<%s> legacy;", typeName);
+            }
+            List<String> parameters = new ArrayList<>();
+            out.line("");
+            out.line("/**");
+            if (!entities.isEmpty()) {
+                out.line(" * @param gson   Gives the adapters of the entity "
+                        + "fields.");
+                parameters.add("final Gson gson");
+            }
+            if (required) {
+                out.line(" * @param legacy Reads the objects written without "
+                        + "a required field.");
+                parameters.add(String.format("final TypeAdapter<%s> legacy",
+                        typeName));
+            }
+            out.line(" */");
+            out.open("public %s(%s) {", adapterName,
+                    String.join(", ", parameters));
+            for (Map.Entry<String, String> entity : entities.entrySet()) {
+                out.line("this.%s = gson.getAdapter(%s.class);",
+                        entity.getValue(), entity.getKey());
+            }
+            if (required) {
+                out.line("this.legacy = legacy;");
+            }
+            out.close("}");
+        }
+
+        out.line("");
+        out.line("@Override");
+        out.open("public void write(final JsonWriter out, final %s value)",
+                typeName);
+        out.line("    throws IOException {");
+        out.open("if (value == null) {");
+        out.line("out.nullValue();");
+        out.closeOpen("} else {");
+        out.line("writeObject(out, value);");
+        out.close("}");
+        out.close("}");
+
+        read(out, pkg, type, properties, entities);
+        writeObject(out, pkg, type, properties);
+
+        out.close("}");
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName + "." + adapterName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private void writeObject(final Source out, final PackageElement pkg,
+                             final TypeElement type,
+                             final List<Property> properties) {
+
+        out.line("");
+        out.line("/**");
+        out.line(" * @param out   The writer.");
+        out.line(" * @param value The value written, not null.");
+        out.line(" * @throws IOException If the writer fails.");
+        out.line(" */");
+        out.open("public static void writeObject(final JsonWriter out,");
+        out.line("    final %s value) throws IOException {",
+                type.getSimpleName());
+        out.line("out.beginObject();");
+        writeFields(out, pkg, properties, false);
+        out.line("out.endObject();");
+        out.close("}");
+    }
+
+    /**
+     * Writes the fields of the value, or the local variables of the fields
+     * read so far.
+     */
+    private void writeFields(final Source out, final PackageElement pkg,
+                             final List<Property> properties,
+                             final boolean locals) {
+
+        for (Property property : properties) {
+            String javaType = name(pkg, property);
+            String source = locals ? property.field
+                    : property.direct ? "value." + property.field
+                    : "value.get" + capitalize(property.field) + "()";
+            out.open("{");
+            if (property.adapter != null) {
+                out.line("%s field = %s;", javaType, source);
+                out.open("if (field != null) {");
+                out.line("out.name(%s);", literal(property.jsonName));
+                out.line("%s.write(out, field);", adapterField(property));
+                out.close("}");
+                out.close("}");
+                continue;
+            }
+            out.line("%s%s field = %s;", javaType,
+                    property.array ? "[]" : "", source);
+            out.open("if (field != null) {");
+            out.line("out.name(%s);", literal(property.jsonName));
+            if (property.array) {
+                out.line("out.beginArray();");
+                out.open("for (%s element : field) {", javaType);
+                out.open("if (element == null) {");
+                out.line("out.nullValue();");
+                out.closeOpen("} else {");
+                out.line(writeValue(pkg, property, "element"));
+                out.close("}");
+                out.close("}");
+                out.line("out.endArray();");
+            } else {
+                out.line(writeValue(pkg, property, "field"));
+            }
+            out.close("}");
+            out.close("}");
+        }
+    }
+
+    private void read(final Source out, final PackageElement pkg,
+                      final TypeElement type,
+                      final List<Property> properties,
+                      final Map<String, String> entities) {
+
+        String typeName = type.getSimpleName().toString();
+
+        out.line("");
+        out.line("@Override");
+        out.open("public %s read(final JsonReader in) throws IOException {",
+                typeName);
+        out.open("if (%s.nextNull(in)) {", SUPPORT);
+        out.line("return null;");
+        out.close("}");
+        for (Property property : properties) {
+            out.line("%s%s %s = null;", name(pkg, property),
+                    property.array && property.adapter == null ? "[]" : "",
+                    property.field);
+        }
+        out.line("in.beginObject();");
+        out.open("while (in.hasNext()) {");
+        out.open("switch (in.nextName()) {");
+
+        for (Property property : properties) {
+            out.line("case %s:", literal(property.jsonName));
+            for (String alternate : property.alternateNames) {
+                out.line("case %s:", literal(alternate));
+            }
+            out.indent();
+            if (property.adapter != null) {
+                out.line("%s = %s.read(in);", property.field,
+                        adapterField(property));
+            } else if (property.array) {
+                String javaType = name(pkg, property);
+                out.open("if (%s.nextNull(in)) {", SUPPORT);
+                out.line("%s = null;", property.field);
+                out.closeOpen("} else {");
+                out.line("List<%s> elements = new ArrayList<>();", javaType);
+                out.line("in.beginArray();");
+                out.open("while (in.hasNext()) {");
+                out.line("elements.add(%s);",
+                        readValue(pkg, property, entities));
+                out.close("}");
+                out.line("in.endArray();");
+                out.line("%s = elements.toArray(new %s[0]);",
+                        property.field, javaType);
+                out.close("}");
+            } else {
+                out.line("%s = %s;", property.field,
+                        readValue(pkg, property, entities));
+            }
+            out.line("break;");
+            out.outdent();
+        }
+
+        out.line("default:");
+        out.indent();
+        out.line("in.skipValue();");
+        out.outdent();
+        out.close("}");
+        out.close("}");
+
+        out.line("in.endObject();");
+
+        StringBuilder missing = new StringBuilder();
+        for (Property property : properties) {
+            if (property.required) {
+                if (missing.length() > 0) {
+                    missing.append(" || ");
+                }
+                missing.append(property.field).append(" == null");
+            }
+        }
+        if (missing.length() > 0) {
+            out.open("if (%s) {", missing);
+            out.line("// Written without a required field, read as it was.");
+            out.line("StringWriter json = new StringWriter();");
+            out.line("JsonWriter out = new JsonWriter(json);");
+            out.line("out.beginObject();");
+            writeFields(out, pkg, properties, true);
+            out.line("out.endObject();");
+            out.line("return legacy.fromJson(json.toString());");
+            out.close("}");
+        }
+
+        StringBuilder arguments = new StringBuilder();
+        for (Property property : properties) {
+            if (arguments.length() > 0) {
+                arguments.append(", ");
+            }
+            arguments.append(property.field);
+        }
+        out.line("return new %s(%s);", typeName, arguments);
+        out.close("}");
+    }
+
+    private String writeValue(final PackageElement pkg,
+                              final Property property, final String value) {
+        if (property.kind == Kind.OBJECT) {
+            return String.format("%sTypeAdapter.writeObject(out, %s);",
+                    name(pkg, property), value);
+        }
+        return String.format("out.value(%s);", value);
+    }
+
+    private String readValue(final PackageElement pkg,
+                             final Property property,
+                             final Map<String, String> entities) {
+        if (property.kind == Kind.OBJECT) {
+            return entities.get(name(pkg, property)) + ".read(in)";
+        }
+        return SUPPORT + "." + property.kind.reader + "(in)";
+    }
+
+    private String name(final PackageElement pkg, final Property property) {
+
+        if (property.adapter != null) {
+            return property.javaType;
+        }
+        switch (property.kind) {
+            case STRING:
+                return "String";
+            case INTEGER:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case BOOLEAN:
+                return "Boolean";
+            default:
+                PackageElement entityPackage = processingEnv
+                        .getElementUtils().getPackageOf(property.entity);
+                return entityPackage.equals(pkg)
+                        ? property.entity.getSimpleName().toString()
+                        : property.entity.getQualifiedName().toString();
+        }
+    }
+
+    /**
+     * @return The name of a type in the source, without its annotations.
+     */
+    private static String sourceName(final TypeMirror type) {
+
+        if (type.getKind() == TypeKind.ARRAY) {
+            return sourceName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) type).asElement())
+                    .getQualifiedName().toString();
+        }
+        return type.getKind().toString().toLowerCase();
+    }
+
+    private static String adapterField(final Property property) {
+        return property.field.replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                .toUpperCase() + "_ADAPTER";
+    }
+
+    private static String capitalize(final String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String decapitalize(final String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String literal(final String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"")
+                + "\"";
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                message, element);
+    }
+
+    /**
+     * Builds the source of a class, indented by blocks.
+     */
+    private static final class Source {
+
+        private final StringBuilder text = new StringBuilder();
+        private int depth;
+
+        void line(final String format, final Object... args) {
+            String line = args.length == 0 ? format
+                    : String.format(format, args);
+            if (!line.isEmpty()) {
+                for (int i = 0; i < depth; i++) {
+                    text.append("    ");
+                }
+            }
+            text.append(line).append('\n');
+        }
+
+        void open(final String format, final Object... args) {
+            line(format, args);
+            depth++;
+        }
+
+        void close(final String line) {
+            depth--;
+            line(line);
+        }
+
+        void closeOpen(final String line) {
+            depth--;
+            open(line);
+        }
+
+        void indent() {
+            depth++;
+        }
+
+        void outdent() {
+            depth--;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.crawl;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The progress of a {@link FeedHistoryCrawler} saved after each page.
+ */
+@Getter
+@Builder
+public class FeedCrawlCheckpoint {
+
+    /**
+     * The cursor of the next page, null before the first page and once the
+     * crawl is complete.
+     */
+    private final String nextOffset;
+
+    /**
+     * The number of pages fetched.
+     */
+    private final long pages;
+
+    /**
+     * The number of feeds written to the records file.
+     */
+    private final long feeds;
+
+    /**
+     * The length of the records file holding these feeds, bytes written
+     * after it belong to a page that was not checkpointed.
+     */
+    private final long recordsLength;
+
+    /**
+     * True once the last page has been fetched.
+     */
+    private final boolean complete;
+}
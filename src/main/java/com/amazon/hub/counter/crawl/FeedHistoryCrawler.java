@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.crawl;
+
+import com.amazon.hub.counter.AmazonHubCounterFeedAPI;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.json.JsonCodec;
+import com.amazon.hub.counter.json.JsonCodecs;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Backfills the feed history of a client into a local directory, resuming
+ * where it stopped after a crash or a restart.
+ * Each page is appended to an append-only records file, one JSON feed per
+ * line, and then the nextOffset cursor and the length of the records file
+ * are saved to a checkpoint file, replaced atomically. On start the records
+ * written after the last checkpoint are discarded and the crawl continues
+ * from its cursor, a crash costs at most one page.
+ * A directory is crawled by one crawler at a time.
+ */
+public class FeedHistoryCrawler {
+
+    private static final Logger logger = LogManager.getLogger(
+            FeedHistoryCrawler.class.getName());
+
+    /**
+     * The records file, one JSON feed per line.
+     */
+    public static final String RECORDS_FILE = "feeds.jsonl";
+
+    /**
+     * The checkpoint file.
+     */
+    public static final String CHECKPOINT_FILE = "checkpoint.properties";
+
+    private static final String NEXT_OFFSET = "nextOffset";
+    private static final String PAGES = "pages";
+    private static final String FEEDS = "feeds";
+    private static final String RECORDS_LENGTH = "recordsLength";
+    private static final String COMPLETE = "complete";
+
+    private static final byte NEW_LINE = '\n';
+
+    private final AmazonHubCounterFeedAPI api;
+    private final Path directory;
+    private final Integer pageSize;
+    private final JsonCodec codec = JsonCodecs.getDefault();
+
+    /**
+     * The accessToken is obtained and renewed by the API handler.
+     *
+     * @param api       The API handler used to read the pages.
+     * @param directory The directory holding the records and checkpoint
+     *                  files, created if it does not exist.
+     * @param pageSize  Defines the size of the pagination of the results,
+     *                  default: 50, max_value: 100.
+     */
+    public FeedHistoryCrawler(final AmazonHubCounterFeedAPI api,
+                              final Path directory,
+                              final Integer pageSize) {
+
+        this.api = api;
+        this.directory = directory;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Fetches the pages following the last checkpoint until the last page.
+     * A failed request stops the crawl, calling it again resumes from the
+     * page that failed.
+     *
+     * @return The checkpoint of the complete crawl.
+     * @throws IOException If the records or the checkpoint cannot be
+     *                     written, or the directory is being crawled by
+     *                     another crawler.
+     */
+    public FeedCrawlCheckpoint crawl() throws IOException {
+
+        Files.createDirectories(directory);
+
+        try (FileChannel records = FileChannel.open(getRecordsFile(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = records.tryLock()) {
+
+            if (lock == null) {
+                throw new IOException(directory
+                        + " is being crawled by another process");
+            }
+
+            FeedCrawlCheckpoint checkpoint = getCheckpoint();
+            discardUncheckpointed(records, checkpoint);
+
+            if (checkpoint.getPages() > 0 && !checkpoint.isComplete()) {
+                logger.info("Resuming the feed crawl after [{}] pages and "
+                        + "[{}] feeds.", checkpoint.getPages(),
+                        checkpoint.getFeeds());
+            }
+
+            while (!checkpoint.isComplete()) {
+                checkpoint = crawlPage(records, checkpoint);
+            }
+
+            return checkpoint;
+        }
+    }
+
+    /**
+     * @return The last saved checkpoint, or the checkpoint of a crawl not
+     * started yet.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    public FeedCrawlCheckpoint getCheckpoint() throws IOException {
+
+        Path file = getCheckpointFile();
+
+        if (!Files.exists(file)) {
+            return FeedCrawlCheckpoint.builder().build();
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+
+        try {
+            return FeedCrawlCheckpoint.builder()
+                    .nextOffset(properties.getProperty(NEXT_OFFSET))
+                    .pages(Long.parseLong(properties.getProperty(PAGES)))
+                    .feeds(Long.parseLong(properties.getProperty(FEEDS)))
+                    .recordsLength(Long.parseLong(
+                            properties.getProperty(RECORDS_LENGTH)))
+                    .complete(Boolean.parseBoolean(
+                            properties.getProperty(COMPLETE)))
+                    .build();
+        } catch (NumberFormatException ex) {
+            throw new IOException(file + " is not a crawl checkpoint", ex);
+        }
+    }
+
+    /**
+     * Reads the feeds saved by the last checkpoint, the stream has to be
+     * closed.
+     *
+     * @return The feeds in the order of the pages.
+     * @throws IOException If the records file cannot be opened.
+     */
+    public Stream<Feed> readFeeds() throws IOException {
+
+        long feeds = getCheckpoint().getFeeds();
+        BufferedReader reader = Files.newBufferedReader(getRecordsFile(),
+                StandardCharsets.UTF_8);
+
+        return reader.lines()
+                .limit(feeds)
+                .map(line -> {
+                    try {
+                        return codec.fromJson(line, Feed.class);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    /**
+     * @return The records file, one JSON feed per line.
+     */
+    public Path getRecordsFile() {
+        return directory.resolve(RECORDS_FILE);
+    }
+
+    /**
+     * @return The checkpoint file.
+     */
+    public Path getCheckpointFile() {
+        return directory.resolve(CHECKPOINT_FILE);
+    }
+
+    private FeedCrawlCheckpoint crawlPage(final FileChannel records,
+                                          final FeedCrawlCheckpoint last)
+            throws IOException {
+
+        FeedsResponse page = api.getFeeds(last.getNextOffset(), pageSize);
+        Feed[] feeds = page == null || page.getRecords() == null
+                ? new Feed[0] : page.getRecords();
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (Feed feed : feeds) {
+            writeLine(lines, feed);
+        }
+        records.write(ByteBuffer.wrap(lines.toByteArray()),
+                last.getRecordsLength());
+        // The records are durable before the checkpoint refers to them.
+        records.force(false);
+
+        String nextOffset = page == null ? null : page.getNextOffset();
+        boolean complete = nextOffset == null || nextOffset.isEmpty();
+        FeedCrawlCheckpoint checkpoint = FeedCrawlCheckpoint.builder()
+                .nextOffset(complete ? null : nextOffset)
+                .pages(last.getPages() + 1)
+                .feeds(last.getFeeds() + feeds.length)
+                .recordsLength(last.getRecordsLength() + lines.size())
+                .complete(complete)
+                .build();
+        saveCheckpoint(checkpoint);
+
+        logger.debug("Crawled page [{}], [{}] feeds.", checkpoint.getPages(),
+                checkpoint.getFeeds());
+
+        return checkpoint;
+    }
+
+    private void writeLine(final OutputStream outputStream, final Feed feed)
+            throws IOException {
+
+        codec.write(feed, outputStream);
+        outputStream.write(NEW_LINE);
+    }
+
+    private void discardUncheckpointed(final FileChannel records,
+                                       final FeedCrawlCheckpoint checkpoint)
+            throws IOException {
+
+        long size = records.size();
+
+        if (size < checkpoint.getRecordsLength()) {
+            throw new IOException(getRecordsFile() + " is shorter than its "
+                    + "checkpoint, remove the directory to crawl again");
+        }
+        if (size > checkpoint.getRecordsLength()) {
+            logger.info("Discarding [{}] bytes of a page that was not "
+                    + "checkpointed.", size - checkpoint.getRecordsLength());
+            records.truncate(checkpoint.getRecordsLength());
+            records.force(false);
+        }
+    }
+
+    private void saveCheckpoint(final FeedCrawlCheckpoint checkpoint)
+            throws IOException {
+
+        Properties properties = new Properties();
+        if (checkpoint.getNextOffset() != null) {
+            properties.setProperty(NEXT_OFFSET, checkpoint.getNextOffset());
+        }
+        properties.setProperty(PAGES, Long.toString(checkpoint.getPages()));
+        properties.setProperty(FEEDS, Long.toString(checkpoint.getFeeds()));
+        properties.setProperty(RECORDS_LENGTH,
+                Long.toString(checkpoint.getRecordsLength()));
+        properties.setProperty(COMPLETE,
+                Boolean.toString(checkpoint.isComplete()));
+
+        Path file = getCheckpointFile();
+        Path temporary = file.resolveSibling(CHECKPOINT_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            properties.store(bytes, "Feed crawl checkpoint");
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -18,20 +18,29 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringArrayTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import lombok.Getter;
 import lombok.Builder;
 import lombok.NonNull;
 
+import java.time.DayOfWeek;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Represents an Amazon Hub Counter Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class AccessPoint {
@@ -43,12 +52,14 @@ public class AccessPoint {
     private final Boolean isActive;
     private final Boolean isRestrictedAccess;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String timeZone;
     @NonNull
     private final Address address;
     private final Capacity capacity;
     private final String terminationDate;
     @NonNull
+    @JsonAdapter(InternedStringArrayTypeAdapter.class)
     private final String[] capabilities;
     @SerializedName("standardHours")
     @NonNull
@@ -125,6 +136,41 @@ public class AccessPoint {
                 .findAny();
     }
 
+    /**
+     * @param day The day of the week to search for.
+     * @return The StandardHours object of that day or empty if it is not
+     * present.
+     */
+    public Optional<StandardHours> getStandardHours(@NonNull DayOfWeek day) {
+
+        return getStandardHoursByDayName(day.name());
+    }
+
+    /**
+     * @return The known capabilities of the Access Point, the names not
+     * matching a {@link Capability} are left out.
+     */
+    public Set<Capability> getCapabilitySet() {
+
+        Set<Capability> capabilitySet = EnumSet.noneOf(Capability.class);
+
+        for (String capability : capabilities) {
+            Capability.fromName(capability).ifPresent(capabilitySet::add);
+        }
+
+        return Collections.unmodifiableSet(capabilitySet);
+    }
+
+    /**
+     * @param capability The capability to look for.
+     * @return True if the Access Point offers the capability.
+     */
+    public boolean hasCapability(@NonNull Capability capability) {
+
+        return Arrays.stream(capabilities)
+                .anyMatch(name -> capability.name().equalsIgnoreCase(name));
+    }
+
 
 }
 
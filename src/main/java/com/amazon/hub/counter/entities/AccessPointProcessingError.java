@@ -18,6 +18,7 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
 import lombok.Getter;
 import lombok.Builder;
 
@@ -25,6 +26,7 @@ import lombok.Builder;
  * Represents the details of the error produced when processing
  * a submitted feed.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class AccessPointProcessingError {
@@ -18,11 +18,14 @@
 
 package com.amazon.hub.counter.entities;
 
-import com.google.gson.Gson;
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.JsonCodecs;
 import lombok.Getter;
 import lombok.Builder;
 import lombok.NonNull;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -32,9 +35,11 @@ import java.util.stream.Collectors;
 /**
  * Represents the payload of the request that is sent when submitting a feed.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class AccessPointsFeedRequest {
+
     @NonNull
     private final AccessPoint[] accessPoints;
 
@@ -100,7 +105,19 @@ public class AccessPointsFeedRequest {
      */
     public String toJson() {
 
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return JsonCodecs.getDefault().toJson(this);
+    }
+
+    /**
+     * Writes the same JSON as {@link #toJson()} while it is encoded, without
+     * building the whole payload in memory.
+     *
+     * @param outputStream The stream the UTF-8 encoded JSON is written to, it
+     *                     is flushed but not closed.
+     * @throws IOException If the JSON cannot be written.
+     */
+    public void writeJson(final OutputStream outputStream) throws IOException {
+
+        JsonCodecs.getDefault().write(this, outputStream);
     }
 }
@@ -18,6 +18,9 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Getter;
 import lombok.Builder;
 import lombok.NonNull;
@@ -25,6 +28,7 @@ import lombok.NonNull;
 /**
  * Represents the address of an Amazon Hub Counter Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class Address {
@@ -33,12 +37,15 @@ public class Address {
     private final String addressFieldTwo;
     private final String addressFieldThree;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String city;
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String region;
     private final String district;
     @NonNull
     private final String postalCode;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String countryCode;
     @NonNull
     private final String latitude;
@@ -18,6 +18,7 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
 import lombok.Getter;
 import lombok.Builder;
 
@@ -27,6 +28,7 @@ import lombok.Builder;
  * packages.
  * Minimum supported value is 5 packages.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class Capacity {
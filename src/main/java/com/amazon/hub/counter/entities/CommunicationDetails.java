@@ -18,6 +18,7 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
 import lombok.Getter;
 import lombok.Builder;
 import lombok.NonNull;
@@ -25,6 +26,7 @@ import lombok.NonNull;
 /**
  * Represents the contact details of an Amazon Hub Counter Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class CommunicationDetails {
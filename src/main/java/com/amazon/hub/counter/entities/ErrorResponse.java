@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.entities;
+
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.JsonCodecException;
+import com.amazon.hub.counter.json.JsonCodecs;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Represents the body returned by the API when a request fails.
+ */
+@GenerateTypeAdapter
+@Getter
+@Builder
+public class ErrorResponse {
+
+
+    private final String message;
+    private final Boolean retryable;
+
+    /**
+     * @param json The body of a failed response.
+     * @return The error envelope or null if the body is not one.
+     */
+    public static ErrorResponse fromJson(final String json) {
+
+        try {
+            return JsonCodecs.getDefault().fromJson(json,
+                    ErrorResponse.class);
+        } catch (JsonCodecException ex) {
+            return null;
+        }
+    }
+}
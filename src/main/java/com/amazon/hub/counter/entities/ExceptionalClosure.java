@@ -18,15 +18,19 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
 import lombok.Getter;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 
 /**
  * Represents an exceptional closure of an Amazon Hub Counter Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
+@EqualsAndHashCode
 public class ExceptionalClosure {
     @NonNull
     private final String startDateTime;
@@ -18,18 +18,24 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Getter;
 import lombok.Builder;
 
 /**
  * Represents the feed that is created when a feed is submitted.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class Feed {
     private final String feedId;
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String clientId;
     private final Integer sequenceNumber;
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String status;
     private final FeedRecordDocument[] inputDocuments;
     private final FeedRecordDocument[] outputDocuments;
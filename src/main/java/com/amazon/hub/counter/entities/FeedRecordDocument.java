@@ -18,15 +18,20 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Getter;
 import lombok.Builder;
 
 /**
  * Represents the an occurrence of a document associated to a feed.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class FeedRecordDocument {
     private final String documentId;
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String documentType;
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.entities;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The feeds found by an incremental synchronization and the watermark to
+ * persist for the next one.
+ */
+@Getter
+@Builder
+public class FeedSyncResult {
+
+    /**
+     * The feeds above the previous watermark, in the order of the pages.
+     */
+    private final Feed[] feeds;
+
+    /**
+     * The feeds above the previous watermark that are neither Completed nor
+     * Failed. They are not returned again, check them with getFeedById.
+     */
+    private final Feed[] pendingFeeds;
+
+    /**
+     * The watermark of the next synchronization, the newest feed read.
+     */
+    private final FeedWatermark watermark;
+
+    /**
+     * The number of pages requested.
+     */
+    private final int pagesRead;
+}
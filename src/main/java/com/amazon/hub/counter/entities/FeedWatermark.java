@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.entities;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The position of the newest feed already synchronized. Feeds are ordered by
+ * their sequenceNumber, or by their createDate when a sequenceNumber is
+ * missing. Persist both values between synchronizations.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@ToString
+public class FeedWatermark {
+
+    /**
+     * The watermark of a first synchronization, it covers no feed.
+     */
+    public static final FeedWatermark INITIAL =
+            FeedWatermark.builder().build();
+
+    private final Integer sequenceNumber;
+    private final Long createDate;
+
+    /**
+     * @param feed A feed.
+     * @return The watermark covering the feed and the older ones.
+     */
+    public static FeedWatermark of(final Feed feed) {
+
+        return FeedWatermark.builder()
+                .sequenceNumber(feed.getSequenceNumber())
+                .createDate(feed.getCreateDate())
+                .build();
+    }
+
+    /**
+     * @param feed A feed.
+     * @return True if the feed is at or below the watermark, it was already
+     * synchronized.
+     */
+    public boolean covers(final Feed feed) {
+
+        if (sequenceNumber != null && feed.getSequenceNumber() != null) {
+            return feed.getSequenceNumber() <= sequenceNumber;
+        }
+        if (createDate != null && feed.getCreateDate() != null) {
+            return feed.getCreateDate() <= createDate;
+        }
+
+        return false;
+    }
+}
@@ -18,12 +18,14 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
 import lombok.Getter;
 import lombok.Builder;
 
 /**
  * Represents the response when the list of feeds is requested.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class FeedsResponse {
@@ -18,18 +18,26 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Getter;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 
 /**
  * Represents the midday closure of an Amazon Hub Counter Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
+@EqualsAndHashCode
 public class MidDayClosure {
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String startTime;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String endTime;
 }
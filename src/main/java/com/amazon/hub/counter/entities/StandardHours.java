@@ -18,22 +18,86 @@
 
 package com.amazon.hub.counter.entities;
 
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.InternedStringTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 
+import java.time.DayOfWeek;
+import java.util.Locale;
+
 /**
  * Represents the opening, closing and midday closures of an Amazon Hub Counter
  * Pick-Up Point.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
+@EqualsAndHashCode(doNotUseGetters = true)
 public class StandardHours {
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String day;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String openingTime;
     @NonNull
+    @JsonAdapter(InternedStringTypeAdapter.class)
     private final String closingTime;
-    private final MidDayClosure[] midDayClosures;
+    // Written by the generated adapter without the copy of the getter.
+    @Getter(AccessLevel.NONE)
+    final MidDayClosure[] midDayClosures;
+
+    /**
+     * Adds a setter taking the day of the week to the lombok builder.
+     */
+    public static class StandardHoursBuilder {
+
+        /**
+         * @param day The day of the week, sent by its name.
+         * @return The builder.
+         */
+        public StandardHoursBuilder day(@NonNull final DayOfWeek day) {
+
+            this.day = day.name();
+
+            return this;
+        }
+
+        /**
+         * @param day The name of the day of the week.
+         * @return The builder.
+         */
+        public StandardHoursBuilder day(final String day) {
+
+            this.day = day;
+
+            return this;
+        }
+    }
+
+    /**
+     * @return The day of the week of these hours.
+     * @throws IllegalArgumentException If the day is not the name of a day
+     *                                  of the week.
+     */
+    public DayOfWeek getDayOfWeek() {
+
+        return DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * The hours are shared by the access points decoded with the same
+     * hours, each call returns its own copy of the closures.
+     *
+     * @return The midday closures, null if there are none.
+     */
+    public MidDayClosure[] getMidDayClosures() {
+
+        return midDayClosures == null ? null : midDayClosures.clone();
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.helpers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs at most a fixed number of tasks at the same time on a
+ * delegate executor. Tasks submitted over the limit wait in a queue, they do
+ * not hold a thread while waiting. A thread finishing a task runs the next
+ * queued one, so an unbounded delegate such as a cached thread pool uses at
+ * most maxConcurrency threads.
+ */
+public class ConcurrencyLimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final int maxConcurrency;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * @param delegate       The executor running the tasks.
+     * @param maxConcurrency Maximum number of tasks running at the same time.
+     */
+    public ConcurrencyLimitedExecutor(final Executor delegate,
+                                      final int maxConcurrency) {
+
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be "
+                    + "greater than 0.");
+        }
+
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+
+        queue.add(task);
+        queued.incrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+
+        while (true) {
+            int running = active.get();
+
+            if (running >= maxConcurrency || queue.isEmpty()) {
+                return;
+            }
+
+            if (!active.compareAndSet(running, running + 1)) {
+                continue;
+            }
+
+            Runnable task = queue.poll();
+
+            if (task == null) {
+                active.decrementAndGet();
+                // A task may have been queued after the emptiness check.
+                continue;
+            }
+
+            queued.decrementAndGet();
+
+            try {
+                delegate.execute(() -> run(task));
+            } catch (RuntimeException ex) {
+                active.decrementAndGet();
+                throw ex;
+            }
+        }
+    }
+
+    private void run(final Runnable first) {
+
+        Runnable task = first;
+
+        try {
+            while (task != null) {
+                task.run();
+                // The slot is kept for the next queued task.
+                task = queue.poll();
+                if (task != null) {
+                    queued.decrementAndGet();
+                }
+            }
+        } finally {
+            active.decrementAndGet();
+            // A task may have been queued while the slot was taken.
+            drain();
+        }
+    }
+
+    /**
+     * @return The maximum number of tasks running at the same time.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return The number of tasks currently running.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return The number of tasks waiting for a free slot.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.helpers;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * Groups the API endpoints that share a throttling quota.
+ */
+public enum EndpointFamily {
+
+    FEEDS_LIST,
+    FEED_BY_ID,
+    DOCUMENTS,
+    POST_FEED,
+    /**
+     * Any other URL, such as the authentication endpoint.
+     */
+    OTHER;
+
+    private static final Pattern FEEDS_PATH = Pattern.compile(
+            ".*/v1/feeds/?");
+    private static final Pattern FEED_PATH = Pattern.compile(
+            ".*/v1/feeds/[^/]+/?");
+    private static final Pattern DOCUMENT_PATH = Pattern.compile(
+            ".*/v1/feeds/[^/]+/documents/[^/]+/?");
+
+    /**
+     * @param method The HTTP method of the request.
+     * @param url    The URL of the request, as built by the
+     *               {@link FeedAPIEndpointProvider}.
+     * @return The family the endpoint belongs to.
+     */
+    public static EndpointFamily of(final String method, final String url) {
+
+        String path;
+
+        try {
+            path = URI.create(url).getPath();
+        } catch (IllegalArgumentException ex) {
+            return OTHER;
+        }
+
+        if (path == null) {
+            return OTHER;
+        }
+
+        if (FEEDS_PATH.matcher(path).matches()) {
+            return HttpMethod.POST.equals(method) ? POST_FEED : FEEDS_LIST;
+        }
+
+        if (DOCUMENT_PATH.matcher(path).matches()) {
+            return DOCUMENTS;
+        }
+
+        if (FEED_PATH.matcher(path).matches()) {
+            return FEED_BY_ID;
+        }
+
+        return OTHER;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.helpers;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointProcessingDetail;
+import com.amazon.hub.counter.entities.AccessPointProcessingDetailTypeAdapter;
+import com.amazon.hub.counter.entities.AccessPointProcessingError;
+import com.amazon.hub.counter.entities.AccessPointProcessingErrorTypeAdapter;
+import com.amazon.hub.counter.entities.AccessPointTypeAdapter;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequestTypeAdapter;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.AddressTypeAdapter;
+import com.amazon.hub.counter.entities.Capacity;
+import com.amazon.hub.counter.entities.CapacityTypeAdapter;
+import com.amazon.hub.counter.entities.CommunicationDetails;
+import com.amazon.hub.counter.entities.CommunicationDetailsTypeAdapter;
+import com.amazon.hub.counter.entities.ErrorResponse;
+import com.amazon.hub.counter.entities.ErrorResponseTypeAdapter;
+import com.amazon.hub.counter.entities.ExceptionalClosure;
+import com.amazon.hub.counter.entities.ExceptionalClosureTypeAdapter;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedRecordDocument;
+import com.amazon.hub.counter.entities.FeedRecordDocumentTypeAdapter;
+import com.amazon.hub.counter.entities.FeedTypeAdapter;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.entities.FeedsResponseTypeAdapter;
+import com.amazon.hub.counter.entities.MidDayClosure;
+import com.amazon.hub.counter.entities.MidDayClosureTypeAdapter;
+import com.amazon.hub.counter.entities.OutputDocument;
+import com.amazon.hub.counter.entities.OutputDocumentTypeAdapter;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.entities.StandardHoursTypeAdapter;
+import com.amazon.hub.counter.json.ValuePool;
+import com.amazon.hub.counter.login.LoginRequest;
+import com.amazon.hub.counter.login.LoginRequestTypeAdapter;
+import com.amazon.hub.counter.login.LoginResponse;
+import com.amazon.hub.counter.login.LoginResponseTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the TypeAdapters generated at build time for the entities by the
+ * {@link com.amazon.hub.counter.codegen.TypeAdapterProcessor}. They write the
+ * same JSON as the default Gson adapters and read it back without
+ * reflection, the nested entities are read through the adapters of the Gson
+ * instance. Only the objects stored without a required field are read by
+ * the reflective adapter, it is built the first time one is read.
+ * The schedules are read through a {@link ValuePool}, the access points
+ * with the same hours share them. The arrays holding them are not shared,
+ * each access point can modify its own.
+ */
+public class EntityTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final ValuePool schedules;
+
+    /**
+     * The schedules are shared through {@link ValuePool#shared()}.
+     */
+    public EntityTypeAdapterFactory() {
+        this(ValuePool.shared());
+    }
+
+    /**
+     * @param schedules The pool the decoded schedules are shared through.
+     */
+    public EntityTypeAdapterFactory(final ValuePool schedules) {
+        this.schedules = schedules;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson,
+                                     final TypeToken<T> type) {
+
+        Class<? super T> rawType = type.getRawType();
+        TypeAdapter<?> adapter = null;
+
+        if (rawType == AccessPointsFeedRequest.class) {
+            adapter = new AccessPointsFeedRequestTypeAdapter(gson,
+                    reflective(gson, AccessPointsFeedRequest.class));
+        } else if (rawType == AccessPoint.class) {
+            adapter = new AccessPointTypeAdapter(gson,
+                    reflective(gson, AccessPoint.class));
+        } else if (rawType == Address.class) {
+            adapter = new AddressTypeAdapter(reflective(gson, Address.class));
+        } else if (rawType == Capacity.class) {
+            adapter = new CapacityTypeAdapter();
+        } else if (rawType == CommunicationDetails.class) {
+            adapter = new CommunicationDetailsTypeAdapter(
+                    reflective(gson, CommunicationDetails.class));
+        } else if (rawType == ExceptionalClosure.class) {
+            adapter = canonical(new ExceptionalClosureTypeAdapter(
+                    reflective(gson, ExceptionalClosure.class)));
+        } else if (rawType == MidDayClosure.class) {
+            adapter = canonical(new MidDayClosureTypeAdapter(
+                    reflective(gson, MidDayClosure.class)));
+        } else if (rawType == StandardHours.class) {
+            adapter = canonical(new StandardHoursTypeAdapter(gson,
+                    reflective(gson, StandardHours.class)));
+        } else if (rawType == LoginRequest.class) {
+            adapter = new LoginRequestTypeAdapter(
+                    reflective(gson, LoginRequest.class));
+        } else if (rawType == FeedsResponse.class) {
+            adapter = new FeedsResponseTypeAdapter(gson);
+        } else if (rawType == Feed.class) {
+            adapter = new FeedTypeAdapter(gson);
+        } else if (rawType == FeedRecordDocument.class) {
+            adapter = new FeedRecordDocumentTypeAdapter();
+        } else if (rawType == OutputDocument.class) {
+            adapter = new OutputDocumentTypeAdapter(gson);
+        } else if (rawType == AccessPointProcessingDetail.class) {
+            adapter = new AccessPointProcessingDetailTypeAdapter(gson);
+        } else if (rawType == AccessPointProcessingError.class) {
+            adapter = new AccessPointProcessingErrorTypeAdapter();
+        } else if (rawType == ErrorResponse.class) {
+            adapter = new ErrorResponseTypeAdapter();
+        } else if (rawType == LoginResponse.class) {
+            adapter = new LoginResponseTypeAdapter();
+        }
+
+        return (TypeAdapter<T>) adapter;
+    }
+
+    private <E> TypeAdapter<E> canonical(final TypeAdapter<E> delegate) {
+
+        if (schedules.getCapacity() == 0) {
+            return delegate;
+        }
+
+        return new TypeAdapter<E>() {
+            @Override
+            public void write(final JsonWriter out, final E value)
+                    throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public E read(final JsonReader in) throws IOException {
+                return schedules.canonicalize(delegate.read(in));
+            }
+        };
+    }
+
+    private <E> TypeAdapter<E> reflective(final Gson gson,
+                                          final Class<E> type) {
+        return new LazyAdapter<>(() -> gson.getDelegateAdapter(this,
+                TypeToken.get(type)));
+    }
+
+    /**
+     * Builds the reflective adapter when the first object without a required
+     * field is read, the documents written by the builders have them all.
+     *
+     * @param <E> The type of the entity.
+     */
+    private static final class LazyAdapter<E> extends TypeAdapter<E> {
+
+        private final Supplier<TypeAdapter<E>> factory;
+        private volatile TypeAdapter<E> delegate;
+
+        LazyAdapter(final Supplier<TypeAdapter<E>> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public void write(final JsonWriter out, final E value)
+                throws IOException {
+            delegate().write(out, value);
+        }
+
+        @Override
+        public E read(final JsonReader in) throws IOException {
+            return delegate().read(in);
+        }
+
+        private TypeAdapter<E> delegate() {
+            TypeAdapter<E> adapter = delegate;
+            if (adapter == null) {
+                // A concurrent duplicate is harmless, both adapters are equal.
+                adapter = factory.get();
+                delegate = adapter;
+            }
+            return adapter;
+        }
+    }
+}
@@ -27,6 +27,9 @@ public final class HttpHeaders {
     public static final String CONTENT_TYPE = "Content-Type";
     public static final String CONTENT_LENGTH = "Content-Length";
     public static final String AUTHORIZATION = "Authorization";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String RETRY_AFTER = "Retry-After";
 
     private HttpHeaders() {
         throw new IllegalStateException("Cannot instantiate utility class.");
@@ -18,15 +18,21 @@
 
 package com.amazon.hub.counter.helpers;
 
+import com.amazon.hub.counter.entities.ErrorResponse;
+import com.amazon.hub.counter.json.JsonCodec;
+import com.amazon.hub.counter.transport.HttpRequest;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpStatusException;
+import com.amazon.hub.counter.transport.HttpTransport;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.amazon.hub.counter.transport.RequestBody;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -37,7 +43,12 @@ public final class HttpUtils {
     private static final Logger logger = LogManager.getLogger(
             HttpUtils.class.getName());
 
-    private static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final HttpTransport DEFAULT_TRANSPORT =
+            new PooledHttpTransport();
 
     private HttpUtils() {
         throw new IllegalStateException("Cannot instantiate utility class.");
@@ -54,114 +65,184 @@ public final class HttpUtils {
     public static String postJson(final String url, final String json,
                                   final String bearerToken) throws IOException {
 
-        logger.debug("Sending HTTP POST Request to: [{}]", url);
+        return postJson(DEFAULT_TRANSPORT, url, json, bearerToken);
+    }
 
-        // Create the HTTP POST Request
-        URL uri = new URL(url);
-        final HttpURLConnection httpURLConnection =
-                (HttpURLConnection) uri.openConnection();
-
-        httpURLConnection.setRequestMethod(HttpMethod.POST);
-        httpURLConnection.setRequestProperty(HttpHeaders.CONTENT_TYPE,
-                JSON_CONTENT_TYPE);
-        httpURLConnection.setRequestProperty(HttpHeaders.CONTENT_LENGTH,
-                Integer.toString(json.length()));
-        if (bearerToken != null) {
-            httpURLConnection.setRequestProperty(HttpHeaders.AUTHORIZATION,
-                    bearerToken);
+    /**
+     * @param transport   The transport used to send the request.
+     * @param url         The target URL to be sent the POST Request.
+     * @param json        The JSON that will be sent in the POST Request Body.
+     * @param bearerToken The accessToken that will be added as an Authorization
+     *                    HTTP header.
+     * @return The raw server response.
+     * @throws IOException If the HTTP POST fails to the destination URL.
+     */
+    public static String postJson(final HttpTransport transport,
+                                  final String url, final String json,
+                                  final String bearerToken) throws IOException {
+
+        try (HttpResponse response = sendPost(transport, url,
+                RequestBody.json(json), bearerToken)) {
+            return readBody(response.getBody());
         }
+    }
 
-        httpURLConnection.setRequestProperty(HttpHeaders.ACCEPT,
-                JSON_CONTENT_TYPE);
+    /**
+     * @param transport   The transport used to send the request.
+     * @param url         The target URL to be sent the POST Request.
+     * @param body        The body of the POST Request.
+     * @param bearerToken The accessToken that will be added as an Authorization
+     *                    HTTP header.
+     * @return The successful server response, it has to be closed by the
+     * caller.
+     * @throws IOException If the HTTP POST fails to the destination URL.
+     */
+    public static HttpResponse sendPost(final HttpTransport transport,
+                                        final String url,
+                                        final RequestBody body,
+                                        final String bearerToken)
+            throws IOException {
 
-        // Write request body
-        writeRequestBody(json, httpURLConnection);
-        String responseBody = getHttpResponseBody(httpURLConnection);
+        logger.debug("Sending HTTP POST Request to: [{}]", url);
 
-        // Check HTTP Response status code
-        Integer responseCode = httpURLConnection.getResponseCode();
+        // Create the HTTP POST Request
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
+                .method(HttpMethod.POST)
+                .url(url)
+                .header(HttpHeaders.ACCEPT, JSON_CONTENT_TYPE)
+                .body(body);
 
-        if (responseCode != HttpURLConnection.HTTP_CREATED
-                && responseCode != HttpURLConnection.HTTP_OK) {
-            logger.error("HTTP POST: Bad HTTP Status: [{}]", responseCode);
+        if (bearerToken != null) {
+            request.header(HttpHeaders.AUTHORIZATION, bearerToken);
         }
 
-        // Read the HTTP Response
-        return responseBody;
-
+        return checkStatus(transport.execute(request.build()),
+                HttpMethod.POST);
     }
 
-    private static void writeRequestBody(
-            final String json, final HttpURLConnection httpURLConnection)
+    /**
+     * @param url         The target URL to be sent the GET Request.
+     * @param bearerToken The accessToken that will be added as an Authorization
+     *                    HTTP header.
+     * @return The raw server response.
+     * @throws IOException If the HTTP GET fails to the destination URL.
+     */
+    public static String getJson(final String url, final String bearerToken)
             throws IOException {
 
-        httpURLConnection.setDoOutput(true);
-        OutputStream outputStream = httpURLConnection.getOutputStream();
-        byte[] input = json.getBytes(StandardCharsets.UTF_8);
-        outputStream.write(input, 0, input.length);
-        outputStream.flush();
-        outputStream.close();
+        return getJson(DEFAULT_TRANSPORT, url, bearerToken);
     }
 
     /**
+     * @param transport   The transport used to send the request.
      * @param url         The target URL to be sent the GET Request.
      * @param bearerToken The accessToken that will be added as an Authorization
      *                    HTTP header.
      * @return The raw server response.
      * @throws IOException If the HTTP GET fails to the destination URL.
      */
-    public static String getJson(final String url, final String bearerToken)
+    public static String getJson(final HttpTransport transport,
+                                 final String url, final String bearerToken)
+            throws IOException {
+
+        try (HttpResponse response = sendGet(transport, url, bearerToken)) {
+            return readBody(response.getBody());
+        }
+    }
+
+    /**
+     * @param transport   The transport used to send the request.
+     * @param url         The target URL to be sent the GET Request.
+     * @param bearerToken The accessToken that will be added as an Authorization
+     *                    HTTP header.
+     * @return The successful server response, it has to be closed by the
+     * caller.
+     * @throws IOException If the HTTP GET fails to the destination URL.
+     */
+    public static HttpResponse sendGet(final HttpTransport transport,
+                                       final String url,
+                                       final String bearerToken)
             throws IOException {
 
         logger.debug("Sending HTTP GET Request to: [{}]", url);
 
         // Create the HTTP GET Request
-        URL uri = new URL(url);
-        final HttpURLConnection httpURLConnection =
-                (HttpURLConnection) uri.openConnection();
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .url(url)
+                .header(HttpHeaders.ACCEPT, JSON_CONTENT_TYPE);
 
-        httpURLConnection.setRequestMethod(HttpMethod.GET);
+        if (bearerToken != null) {
+            request.header(HttpHeaders.AUTHORIZATION, bearerToken);
+        }
 
-        httpURLConnection.setRequestProperty(HttpHeaders.ACCEPT,
-                JSON_CONTENT_TYPE);
-        httpURLConnection.setRequestProperty(HttpHeaders.AUTHORIZATION,
-                bearerToken);
+        return checkStatus(transport.execute(request.build()), HttpMethod.GET);
+    }
 
-        // Check HTTP Response status code
-        int responseCode = httpURLConnection.getResponseCode();
+    /**
+     * Decodes the JSON body of a response while it is read from the
+     * connection, without buffering it.
+     *
+     * @param response A successful HTTP response.
+     * @param codec    The codec used for decoding.
+     * @param type     The class the body is mapped to.
+     * @param <T>      The type the body is mapped to.
+     * @return The decoded body.
+     * @throws IOException If an error occurs reading the response stream.
+     */
+    public static <T> T readJson(final HttpResponse response,
+                                 final JsonCodec codec,
+                                 final Class<T> type) throws IOException {
 
-        // Read the HTTP Response
-        String responseBody = getHttpResponseBody(httpURLConnection);
+        return codec.read(response.getBody(), type);
+    }
 
-        if (responseCode != HttpURLConnection.HTTP_OK) {
-            logger.error("HTTP GET: Bad HTTP Status: [{}]", responseCode);
+    /**
+     * @param response An HTTP response.
+     * @param method   The HTTP method of the request, used for logging.
+     * @return The response if its status is successful.
+     * @throws HttpStatusException If the response status is not successful,
+     *                             the response is closed.
+     * @throws IOException         If an error occurs reading the error body.
+     */
+    private static HttpResponse checkStatus(final HttpResponse response,
+                                            final String method)
+            throws IOException {
+
+        // Check HTTP Response status code
+        if (!response.isSuccessful()) {
+            ErrorResponse error;
+            try (HttpResponse failed = response) {
+                error = ErrorResponse.fromJson(readBody(failed.getBody()));
+            }
+            logger.error("HTTP {}: Bad HTTP Status: [{}]", method,
+                    response.getStatusCode());
+            throw new HttpStatusException(response.getStatusCode(), error);
         }
 
-        return responseBody;
+        return response;
     }
 
     /**
-     * @param httpURLConnection An active HTTP connection.
+     * @param inputStream The stream of an HTTP response body.
      * @return The raw server response.
      * @throws IOException IOException If an error occurs reading the response
      *                     stream.
      */
-    private static String getHttpResponseBody(
-            final HttpURLConnection httpURLConnection) throws IOException {
-
-        BufferedReader bufferedReader = new BufferedReader(
-                new InputStreamReader(
-                        httpURLConnection.getInputStream(),
-                        StandardCharsets.UTF_8)
-        );
+    private static String readBody(final InputStream inputStream)
+            throws IOException {
+
+        Reader reader = new InputStreamReader(inputStream,
+                StandardCharsets.UTF_8);
         StringBuilder response = new StringBuilder();
-        String responseLine;
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
 
-        while ((responseLine = bufferedReader.readLine()) != null) {
-            response.append(responseLine.trim());
+        while ((read = reader.read(buffer)) != -1) {
+            response.append(buffer, 0, read);
         }
 
-        bufferedReader.close();
+        reader.close();
 
         return response.toString();
     }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.helpers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent calls with the same key into a single call.
+ * The first caller of a key runs the call, the callers arriving while it is in
+ * flight wait for it and share its result or its failure. The key is forgotten
+ * once the call completes, nothing is cached.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the results.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls =
+            new ConcurrentHashMap<>();
+    private final LongAdder sharedCalls = new LongAdder();
+
+    /**
+     * A call that can fail with an I/O error.
+     *
+     * @param <V> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Call<V> {
+
+        /**
+         * @return The result of the call.
+         * @throws IOException If the call fails.
+         */
+        V call() throws IOException;
+    }
+
+    /**
+     * @param key  Identifies the call, equal keys share a single call.
+     * @param call The call to run if no call with the same key is in flight.
+     * @return The result of the call.
+     * @throws IOException If the call fails.
+     */
+    public V execute(final K key, final Call<V> call) throws IOException {
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, future);
+
+        if (inFlight != null) {
+            sharedCalls.increment();
+            return await(inFlight);
+        }
+
+        try {
+            V result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+
+    /**
+     * @return The number of calls in flight.
+     */
+    public int getInFlightCalls() {
+        return calls.size();
+    }
+
+    /**
+     * @return The number of callers that shared the result of a call in
+     * flight instead of running their own.
+     */
+    public long getSharedCalls() {
+        return sharedCalls.sum();
+    }
+
+    private static <V> V await(final CompletableFuture<V> future)
+            throws IOException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for "
+                    + "a call in flight.");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+import com.amazon.hub.counter.helpers.EntityTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The default codec, Gson with the TypeAdapters generated for the entities.
+ */
+public class GsonJsonCodec implements JsonCodec {
+
+    /**
+     * The name of the codec.
+     */
+    public static final String NAME = "gson";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Gson gson;
+
+    /**
+     * Uses the TypeAdapters generated for the entities.
+     */
+    public GsonJsonCodec() {
+        this(new GsonBuilder()
+                .registerTypeAdapterFactory(new EntityTypeAdapterFactory())
+                .create());
+    }
+
+    /**
+     * @param gson The Gson instance that encodes and decodes the JSON.
+     */
+    public GsonJsonCodec(final Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void write(final Object value, final OutputStream outputStream)
+            throws IOException {
+
+        // The encoder copies every string it is given, JsonWriter writes
+        // each name and value apart.
+        JsonWriter jsonWriter = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                BUFFER_SIZE));
+        try {
+            gson.toJson(value, value == null ? Object.class : value.getClass(),
+                    jsonWriter);
+        } catch (JsonParseException ex) {
+            throw unwrap(ex);
+        }
+        jsonWriter.flush();
+    }
+
+    @Override
+    public <T> T read(final InputStream inputStream, final Class<T> type)
+            throws IOException {
+
+        try {
+            return gson.fromJson(new InputStreamReader(inputStream,
+                    StandardCharsets.UTF_8), type);
+        } catch (JsonParseException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    @Override
+    public <T> Iterator<T> readArray(final InputStream inputStream,
+                                     final String name,
+                                     final Class<T> type)
+            throws IOException {
+
+        JsonReader reader = gson.newJsonReader(new InputStreamReader(
+                inputStream, StandardCharsets.UTF_8));
+        // Accept the same documents as read().
+        reader.setLenient(true);
+
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return Collections.emptyIterator();
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals(name)) {
+                    reader.skipValue();
+                } else if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else {
+                    reader.beginArray();
+                    return new ArrayIterator<>(reader, gson.getAdapter(type));
+                }
+            }
+            reader.endObject();
+            return Collections.emptyIterator();
+        } catch (IllegalStateException | MalformedJsonException ex) {
+            throw new JsonCodecException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public String toJson(final Object value) {
+        return gson.toJson(value);
+    }
+
+    @Override
+    public <T> T fromJson(final String json, final Class<T> type)
+            throws JsonCodecException {
+
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException ex) {
+            throw new JsonCodecException(ex.getMessage(), ex);
+        }
+    }
+
+    // Gson wraps the stream errors, surface them as I/O failures.
+    private static IOException unwrap(final JsonParseException ex) {
+        if (ex.getCause() instanceof IOException
+                && !(ex.getCause() instanceof MalformedJsonException)) {
+            return (IOException) ex.getCause();
+        }
+        return new JsonCodecException(ex.getMessage(), ex);
+    }
+
+    /**
+     * Decodes the elements of an array while the reader is positioned in it,
+     * the rest of the object is read after the last element.
+     */
+    private static final class ArrayIterator<T> implements Iterator<T> {
+
+        private final JsonReader reader;
+        private final TypeAdapter<T> adapter;
+        private boolean inArray = true;
+
+        private ArrayIterator(final JsonReader reader,
+                              final TypeAdapter<T> adapter) {
+            this.reader = reader;
+            this.adapter = adapter;
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            if (!inArray) {
+                return false;
+            }
+            try {
+                if (reader.hasNext()) {
+                    return true;
+                }
+                inArray = false;
+                reader.endArray();
+                while (reader.hasNext()) {
+                    reader.nextName();
+                    reader.skipValue();
+                }
+                reader.endObject();
+                return false;
+            } catch (IOException | RuntimeException ex) {
+                inArray = false;
+                throw unchecked(ex);
+            }
+        }
+
+        @Override
+        public T next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return adapter.read(reader);
+            } catch (IOException | RuntimeException ex) {
+                inArray = false;
+                throw unchecked(ex);
+            }
+        }
+
+        private static UncheckedIOException unchecked(final Exception ex) {
+            if (ex instanceof MalformedJsonException
+                    || !(ex instanceof IOException)) {
+                return new UncheckedIOException(new JsonCodecException(
+                        ex.getMessage(), ex));
+            }
+            return new UncheckedIOException((IOException) ex);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+import com.amazon.hub.counter.codegen.GeneratedAdapterSupport;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the elements of a string array field through the shared
+ * {@link StringPool}, see {@link InternedStringTypeAdapter}.
+ */
+public class InternedStringArrayTypeAdapter extends TypeAdapter<String[]> {
+
+    @Override
+    public void write(final JsonWriter out, final String[] value)
+            throws IOException {
+
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String element : value) {
+            out.value(element);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public String[] read(final JsonReader in) throws IOException {
+
+        if (GeneratedAdapterSupport.nextNull(in)) {
+            return null;
+        }
+        StringPool pool = StringPool.shared();
+        List<String> elements = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            elements.add(pool.intern(GeneratedAdapterSupport.readString(in)));
+        }
+        in.endArray();
+        return elements.toArray(new String[0]);
+    }
+}
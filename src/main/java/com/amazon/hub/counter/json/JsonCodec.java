@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes and decodes the JSON sent to and received from the API.
+ * The SDK uses the codec returned by {@link JsonCodecs#getDefault()}, other
+ * implementations are found with the {@link java.util.ServiceLoader} and
+ * selected by name. An implementation must be thread-safe, write the same
+ * JSON as the Gson codec, and support the entities, the login messages and
+ * {@link java.util.Map}.
+ */
+public interface JsonCodec {
+
+    /**
+     * @return The name the codec is selected by.
+     */
+    String getName();
+
+    /**
+     * @param value        The value to encode.
+     * @param outputStream The stream the UTF-8 encoded JSON is written to, it
+     *                     is flushed but not closed.
+     * @throws IOException If the stream fails.
+     */
+    void write(Object value, OutputStream outputStream) throws IOException;
+
+    /**
+     * @param inputStream The UTF-8 encoded JSON, it is not closed.
+     * @param type        The class the JSON is mapped to.
+     * @param <T>         The type the JSON is mapped to.
+     * @return The decoded value, null for a JSON null.
+     * @throws JsonCodecException If the JSON does not match the type.
+     * @throws IOException        If the stream fails.
+     */
+    <T> T read(InputStream inputStream, Class<T> type) throws IOException;
+
+    /**
+     * Decodes the elements of an array member of a JSON object one at a
+     * time. The default implementation decodes the whole document first,
+     * implementations override it to decode each element while it is read.
+     *
+     * @param inputStream The UTF-8 encoded JSON object, it is not closed.
+     * @param name        The name of the array member.
+     * @param type        The class the elements are mapped to.
+     * @param <T>         The type the elements are mapped to.
+     * @return The elements, none if the document or the member is null or
+     * missing. It throws an {@link UncheckedIOException} if the stream
+     * fails or an element does not match the type.
+     * @throws JsonCodecException If the JSON is not an object.
+     * @throws IOException        If the stream fails.
+     */
+    default <T> Iterator<T> readArray(final InputStream inputStream,
+                                      final String name,
+                                      final Class<T> type)
+            throws IOException {
+
+        Map<?, ?> document = read(inputStream, Map.class);
+        Object elements = document == null ? null : document.get(name);
+
+        if (elements == null) {
+            return Collections.emptyIterator();
+        }
+        if (!(elements instanceof List)) {
+            throw new JsonCodecException("The member " + name
+                    + " is not an array.", null);
+        }
+
+        return ((List<?>) elements).stream().map(element -> {
+            try {
+                return fromJson(toJson(element), type);
+            } catch (JsonCodecException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).iterator();
+    }
+
+    /**
+     * @param value The value to encode.
+     * @return The JSON.
+     */
+    default String toJson(final Object value) {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            write(value, outputStream);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param json The JSON.
+     * @param type The class the JSON is mapped to.
+     * @param <T>  The type the JSON is mapped to.
+     * @return The decoded value, null for a JSON null.
+     * @throws JsonCodecException If the JSON does not match the type.
+     */
+    default <T> T fromJson(final String json, final Class<T> type)
+            throws JsonCodecException {
+
+        try {
+            return read(new ByteArrayInputStream(
+                    json.getBytes(StandardCharsets.UTF_8)), type);
+        } catch (JsonCodecException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Finds the {@link JsonCodec} implementations with the ServiceLoader and
+ * selects the one the SDK uses.
+ * The Gson codec is used unless the system property
+ * {@value #CODEC_PROPERTY} names another codec found in the classpath.
+ */
+public final class JsonCodecs {
+
+    private static final Logger logger = LogManager.getLogger(
+            JsonCodecs.class.getName());
+
+    /**
+     * System property holding the name of the codec used by the SDK.
+     */
+    public static final String CODEC_PROPERTY =
+            "com.amazon.hub.counter.json.codec";
+
+    private static final Map<String, JsonCodec> AVAILABLE = load();
+
+    private static final JsonCodec DEFAULT = select();
+
+    private JsonCodecs() {
+        throw new IllegalStateException("Cannot instantiate utility class.");
+    }
+
+    /**
+     * @return The codec used by the SDK.
+     */
+    public static JsonCodec getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return The codecs found in the classpath by name, the Gson codec
+     * first.
+     */
+    public static Map<String, JsonCodec> getAvailable() {
+        return AVAILABLE;
+    }
+
+    private static Map<String, JsonCodec> load() {
+
+        Map<String, JsonCodec> codecs = new LinkedHashMap<>();
+        codecs.put(GsonJsonCodec.NAME, new GsonJsonCodec());
+
+        try {
+            for (JsonCodec codec : ServiceLoader.load(JsonCodec.class,
+                    JsonCodecs.class.getClassLoader())) {
+                codecs.putIfAbsent(codec.getName(), codec);
+            }
+        } catch (ServiceConfigurationError ex) {
+            logger.warn("Could not load the JSON codecs", ex);
+        }
+
+        return Collections.unmodifiableMap(codecs);
+    }
+
+    private static JsonCodec select() {
+
+        String name = System.getProperty(CODEC_PROPERTY, GsonJsonCodec.NAME);
+        JsonCodec codec = AVAILABLE.get(name);
+
+        if (codec == null) {
+            logger.warn("JSON codec [{}] not found, using [{}]", name,
+                    GsonJsonCodec.NAME);
+            return AVAILABLE.get(GsonJsonCodec.NAME);
+        }
+
+        logger.debug("Using JSON codec [{}]", name);
+        return codec;
+    }
+}
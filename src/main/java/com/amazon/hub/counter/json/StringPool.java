@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+/**
+ * A bounded pool of canonical strings. Decoded catalogs repeat the same
+ * time zones, cities, day names and times in every access point, the pool
+ * hands out one instance per value instead of a copy per access point.
+ * Each value has a single slot chosen by its hash, a colliding value
+ * replaces it, so the pool never holds more than its capacity.
+ * The shared pool holds {@value #DEFAULT_CAPACITY} values unless the system
+ * property {@value #CAPACITY_PROPERTY} sets another capacity, 0 disables
+ * it.
+ */
+public final class StringPool {
+
+    /**
+     * System property holding the capacity of the shared pool.
+     */
+    public static final String CAPACITY_PROPERTY =
+            "com.amazon.hub.counter.json.stringPoolCapacity";
+
+    /**
+     * The capacity of the shared pool when the property is not set.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    // Values longer than this are rarely repeated.
+    private static final int MAX_LENGTH = 64;
+
+    private static final StringPool SHARED = new StringPool(
+            Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    // Unsynchronized, a lost update only costs a duplicate and a String is
+    // safely published through its final fields.
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * @param capacity The maximum number of values held, rounded up to a
+     *                 power of two. 0 disables the pool.
+     */
+    public StringPool(final int capacity) {
+
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between"
+                    + " 0 and " + MAX_CAPACITY + ": " + capacity);
+        }
+
+        this.slots = new String[capacity <= 1 ? capacity
+                : Integer.highestOneBit(capacity - 1) << 1];
+        this.mask = slots.length - 1;
+    }
+
+    /**
+     * @return The pool used when decoding the entities.
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param value A string, can be null.
+     * @return The pooled string equal to the value, the value itself if it
+     * was not pooled.
+     */
+    public String intern(final String value) {
+
+        if (value == null || slots.length == 0
+                || value.length() > MAX_LENGTH) {
+            return value;
+        }
+
+        int hash = value.hashCode();
+        int index = (hash ^ hash >>> 16) & mask;
+        String pooled = slots[index];
+
+        if (value.equals(pooled)) {
+            return pooled;
+        }
+
+        slots[index] = value;
+        return value;
+    }
+
+    /**
+     * @return The maximum number of values held.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+}
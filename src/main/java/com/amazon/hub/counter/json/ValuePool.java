@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.json;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of canonical immutable values, such as the schedules
+ * shared by the access points of a catalog. Values are matched by
+ * equals and hashCode. Arrays are mutable and are not shared, an array is
+ * only matched by itself. Like the
+ * {@link StringPool}, each value has a single slot chosen by its hash and a
+ * colliding value replaces it.
+ * The shared pool holds {@value #DEFAULT_CAPACITY} values unless the system
+ * property {@value #CAPACITY_PROPERTY} sets another capacity, 0 disables
+ * it.
+ */
+public final class ValuePool {
+
+    /**
+     * System property holding the capacity of the shared pool.
+     */
+    public static final String CAPACITY_PROPERTY =
+            "com.amazon.hub.counter.json.valuePoolCapacity";
+
+    /**
+     * The capacity of the shared pool when the property is not set.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private static final ValuePool SHARED = new ValuePool(
+            Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    // Arrays are not safely published by final fields, the slots are.
+    private final AtomicReferenceArray<Object> slots;
+    private final int mask;
+
+    /**
+     * @param capacity The maximum number of values held, rounded up to a
+     *                 power of two. 0 disables the pool.
+     */
+    public ValuePool(final int capacity) {
+
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between"
+                    + " 0 and " + MAX_CAPACITY + ": " + capacity);
+        }
+
+        this.slots = new AtomicReferenceArray<>(capacity <= 1 ? capacity
+                : Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = slots.length() - 1;
+    }
+
+    /**
+     * @return The pool used when decoding the entities.
+     */
+    public static ValuePool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param value An immutable value, can be null.
+     * @param <T>   The type of the value.
+     * @return The pooled value equal to the value, the value itself if it
+     * was not pooled.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T canonicalize(final T value) {
+
+        if (value == null || mask < 0) {
+            return value;
+        }
+
+        int hash = value.hashCode();
+        int index = (hash ^ hash >>> 16) & mask;
+        Object pooled = slots.get(index);
+
+        if (pooled != null && pooled.getClass() == value.getClass()
+                && pooled.equals(value)) {
+            return (T) pooled;
+        }
+
+        slots.lazySet(index, value);
+        return value;
+    }
+
+    /**
+     * @return The maximum number of values held.
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+/**
+ * Supplies the accessToken used to authenticate the requests to the API.
+ * Implementations must be thread safe.
+ */
+@FunctionalInterface
+public interface AccessTokenProvider {
+
+    /**
+     * @return A valid accessToken.
+     */
+    String getAccessToken();
+
+    /**
+     * Called when the API rejects an accessToken. Concurrent callers
+     * rejected with the same token must not each trigger a login.
+     *
+     * @param rejectedToken The accessToken the API rejected.
+     * @return A valid accessToken other than the rejected one.
+     */
+    default String refreshAccessToken(final String rejectedToken) {
+        return getAccessToken();
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+import com.amazon.hub.counter.AmazonHubCounterFeedAPI;
+import com.amazon.hub.counter.helpers.DaemonThreadFactory;
+import com.amazon.hub.counter.helpers.SingleFlight;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches the accessToken until it expires and renews it in the background
+ * before it does, so the requests do not wait for a login once the first
+ * token has been obtained.
+ * Concurrent callers finding no valid token share a single login.
+ * With an {@link AccessTokenStore} the token is shared with the other
+ * processes using the store, they log in once between them.
+ */
+public class CachingAccessTokenProvider implements AccessTokenProvider,
+        Closeable {
+
+    private static final Logger logger = LogManager.getLogger(
+            CachingAccessTokenProvider.class.getName());
+
+    /**
+     * Default time before the expiration the token is renewed.
+     */
+    public static final long DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS = 300_000;
+
+    // A token this close to its expiration could expire in flight.
+    private static final long MAX_EXPIRY_MARGIN_MILLIS = 30_000;
+    private static final long REFRESH_RETRY_MILLIS = 10_000;
+    private static final String LOGIN = "login";
+
+    private final Supplier<AccessToken> login;
+    private final long refreshBeforeExpiryMillis;
+    private final long expiryMarginMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Executor refresher;
+    private final boolean ownsScheduler;
+    private final AccessTokenStore store;
+    private final SingleFlight<String, AccessToken> logins =
+            new SingleFlight<>();
+
+    private volatile AccessToken current;
+    // Lifetime of the last token obtained by this provider, it bounds the
+    // margin so short-lived tokens can be used at all.
+    private volatile long lifetimeMillis = Long.MAX_VALUE;
+
+    // Guarded by this
+    private ScheduledFuture<?> refreshTask;
+    private boolean closed;
+
+    /**
+     * @param api The API handler used to log in.
+     */
+    public CachingAccessTokenProvider(final AmazonHubCounterFeedAPI api) {
+        this(api::login, DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS);
+    }
+
+    /**
+     * @param login                     Obtains a new accessToken.
+     * @param refreshBeforeExpiryMillis Time before the expiration the token is
+     *                                  renewed, bounded to half of its
+     *                                  lifetime. The token is not handed
+     *                                  out in the last 30 s before it
+     *                                  expires, or in this time or half of
+     *                                  its lifetime if shorter.
+     */
+    public CachingAccessTokenProvider(final Supplier<AccessToken> login,
+                                      final long refreshBeforeExpiryMillis) {
+        this(login, refreshBeforeExpiryMillis, (AccessTokenStore) null);
+    }
+
+    /**
+     * @param login                     Obtains a new accessToken.
+     * @param refreshBeforeExpiryMillis Time before the expiration the token is
+     *                                  renewed.
+     * @param store                     Shares the token with other
+     *                                  processes, null to keep it in this
+     *                                  provider only.
+     */
+    public CachingAccessTokenProvider(final Supplier<AccessToken> login,
+                                      final long refreshBeforeExpiryMillis,
+                                      final AccessTokenStore store) {
+        this(login, refreshBeforeExpiryMillis,
+                Executors.newSingleThreadScheduledExecutor(
+                        new DaemonThreadFactory(
+                                "amazon-hub-counter-token-refresh")),
+                Runnable::run, true, store);
+    }
+
+    /**
+     * @param login                     Obtains a new accessToken.
+     * @param refreshBeforeExpiryMillis Time before the expiration the token is
+     *                                  renewed.
+     * @param scheduler                 Runs the background refresh, it can be
+     *                                  shared by several providers and is not
+     *                                  shut down when the provider is closed.
+     */
+    public CachingAccessTokenProvider(final Supplier<AccessToken> login,
+                                      final long refreshBeforeExpiryMillis,
+                                      final ScheduledExecutorService
+                                              scheduler) {
+        this(login, refreshBeforeExpiryMillis, scheduler, Runnable::run);
+    }
+
+    /**
+     * @param login                     Obtains a new accessToken.
+     * @param refreshBeforeExpiryMillis Time before the expiration the token is
+     *                                  renewed.
+     * @param scheduler                 Times the background refresh, it can
+     *                                  be shared by several providers and is
+     *                                  not shut down when the provider is
+     *                                  closed.
+     * @param refresher                 Runs the background login, so a slow
+     *                                  login does not hold the scheduler.
+     */
+    public CachingAccessTokenProvider(final Supplier<AccessToken> login,
+                                      final long refreshBeforeExpiryMillis,
+                                      final ScheduledExecutorService
+                                              scheduler,
+                                      final Executor refresher) {
+        this(login, refreshBeforeExpiryMillis, scheduler, refresher, false,
+                null);
+    }
+
+    private CachingAccessTokenProvider(final Supplier<AccessToken> login,
+                                       final long refreshBeforeExpiryMillis,
+                                       final ScheduledExecutorService
+                                               scheduler,
+                                       final Executor refresher,
+                                       final boolean ownsScheduler,
+                                       final AccessTokenStore store) {
+        this.login = login;
+        this.refreshBeforeExpiryMillis = refreshBeforeExpiryMillis;
+        this.expiryMarginMillis = Math.min(MAX_EXPIRY_MARGIN_MILLIS,
+                refreshBeforeExpiryMillis);
+        this.scheduler = scheduler;
+        this.refresher = refresher;
+        this.ownsScheduler = ownsScheduler;
+        this.store = store;
+    }
+
+    @Override
+    public String getAccessToken() {
+
+        AccessToken token = current;
+
+        if (token != null && token.isValid(System.currentTimeMillis(),
+                expiryMargin())) {
+            return token.getToken();
+        }
+
+        return refresh(token).getToken();
+    }
+
+    @Override
+    public String refreshAccessToken(final String rejectedToken) {
+
+        AccessToken token = current;
+
+        // Another caller already replaced the rejected token.
+        if (token != null && !token.getToken().equals(rejectedToken)) {
+            return getAccessToken();
+        }
+
+        return refresh(token).getToken();
+    }
+
+    /**
+     * Logs in again, the token is shared with the concurrent callers.
+     * With a store, a token renewed by another process is used instead.
+     *
+     * @return The new token.
+     */
+    public AccessToken refresh() {
+        return refresh(current);
+    }
+
+    private AccessToken refresh(final AccessToken stale) {
+
+        try {
+            return logins.execute(LOGIN, () -> {
+                AccessToken token = store == null ? login()
+                        : store.refresh(stored -> isUsable(stored, stale),
+                                this::login);
+                current = token;
+                scheduleRefresh(token);
+                return token;
+            });
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Stops the background refresh, the cached token can still be used.
+     */
+    @Override
+    public synchronized void close() {
+
+        closed = true;
+
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private boolean isUsable(final AccessToken stored,
+                             final AccessToken stale) {
+        return stored != null
+                && stored.isValid(System.currentTimeMillis(),
+                        expiryMargin())
+                && (stale == null
+                        || !stored.getToken().equals(stale.getToken()));
+    }
+
+    private AccessToken login() {
+
+        long requestedAt = System.currentTimeMillis();
+        AccessToken token = login.get();
+        lifetimeMillis = token.getExpiresAtMillis() - requestedAt;
+
+        return token;
+    }
+
+    private long expiryMargin() {
+        return Math.min(expiryMarginMillis, lifetimeMillis / 2);
+    }
+
+    private void scheduleRefresh(final AccessToken token) {
+
+        long lifetime = token.getExpiresAtMillis()
+                - System.currentTimeMillis();
+        long delay = lifetime - Math.min(refreshBeforeExpiryMillis,
+                lifetime / 2);
+
+        schedule(delay);
+    }
+
+    private synchronized void schedule(final long delayMillis) {
+
+        if (closed) {
+            return;
+        }
+
+        // A login triggered by a caller replaces the pending refresh.
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+
+        try {
+            refreshTask = scheduler.schedule(this::startRefresh,
+                    Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // The scheduler is shut down.
+        }
+    }
+
+    private void startRefresh() {
+
+        try {
+            refresher.execute(this::backgroundRefresh);
+        } catch (RejectedExecutionException ex) {
+            // The refresher is shut down.
+        }
+    }
+
+    private void backgroundRefresh() {
+
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            AccessToken token = current;
+            long remaining = token.getExpiresAtMillis()
+                    - System.currentTimeMillis();
+            logger.warn("Could not refresh the accessToken, it expires in "
+                    + "{} ms", remaining, ex);
+            // Keep trying while the cached token is valid, then callers log in.
+            long margin = expiryMargin();
+            if (remaining > margin) {
+                schedule(Math.min(REFRESH_RETRY_MILLIS, remaining - margin));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+import com.amazon.hub.counter.helpers.HttpUtils;
+import com.amazon.hub.counter.json.JsonCodecs;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpTransport;
+import com.amazon.hub.counter.transport.RequestBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obtains accessTokens from the authentication endpoint, for any client
+ * credentials.
+ */
+public class LoginClient {
+
+    private static final Logger logger = LogManager.getLogger(
+            LoginClient.class.getName());
+
+    private static final long DEFAULT_TOKEN_LIFETIME_SECONDS = 3600;
+
+
+    private final String authEndpoint;
+    private final HttpTransport httpTransport;
+
+    /**
+     * @param authEndpoint  URL for the authentication endpoint to be used.
+     * @param httpTransport The transport used to send the login requests.
+     */
+    public LoginClient(final String authEndpoint,
+                       final HttpTransport httpTransport) {
+        this.authEndpoint = authEndpoint;
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * Every call sends a new login request.
+     *
+     * @param clientCredentials The credentials to log in with.
+     * @return A new accessToken and its expiration time.
+     */
+    public AccessToken login(final ClientCredentials clientCredentials) {
+
+        LoginRequest loginRequest = LoginRequest.builder()
+                .client_id(clientCredentials.getClientId())
+                .client_secret(clientCredentials.getClientSecret())
+                .grant_type(clientCredentials.getAuthGrantType())
+                .scope(clientCredentials.getAuthScope())
+                .build();
+
+        logger.debug("Login in...");
+
+        String json = loginRequest.toJson();
+
+        try {
+            long requestedAt = System.currentTimeMillis();
+            LoginResponse loginResponse;
+
+            try (HttpResponse response = HttpUtils.sendPost(httpTransport,
+                    authEndpoint, RequestBody.json(json), null)) {
+                loginResponse = HttpUtils.readJson(response,
+                        JsonCodecs.getDefault(), LoginResponse.class);
+            }
+
+            if (loginResponse == null
+                    || loginResponse.getAccess_token() == null) {
+                throw new IOException("Login response without access_token.");
+            }
+
+            // The lifetime counts from before the request was sent.
+            long expiresIn = loginResponse.getExpires_in() != null
+                    ? loginResponse.getExpires_in()
+                    : DEFAULT_TOKEN_LIFETIME_SECONDS;
+
+            return AccessToken.builder()
+                    .token(loginResponse.getAccess_token())
+                    .expiresAtMillis(requestedAt
+                            + TimeUnit.SECONDS.toMillis(expiresIn))
+                    .build();
+
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
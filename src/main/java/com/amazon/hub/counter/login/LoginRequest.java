@@ -18,7 +18,8 @@
 
 package com.amazon.hub.counter.login;
 
-import com.google.gson.Gson;
+import com.amazon.hub.counter.codegen.GenerateTypeAdapter;
+import com.amazon.hub.counter.json.JsonCodecs;
 import lombok.Getter;
 import lombok.Builder;
 import lombok.NonNull;
@@ -26,6 +27,7 @@ import lombok.NonNull;
 /**
  * Represents the payload of the request for obtaining the accessToken.
  */
+@GenerateTypeAdapter
 @Getter
 @Builder
 public class LoginRequest {
@@ -42,7 +44,6 @@ public class LoginRequest {
      * @return Returns the JSON representation of the Login request.
      */
     public String toJson() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return JsonCodecs.getDefault().toJson(this);
     }
 }
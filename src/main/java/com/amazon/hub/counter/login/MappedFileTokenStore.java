@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the accessToken in a memory-mapped file shared by the processes
+ * running with the same credentials. Reading the token takes no lock, a
+ * login holds an exclusive lock on the file so one process logs in and the
+ * others read its token. A restarted process reads the token left in the
+ * file instead of logging in.
+ * The file holds a bearer token, it is created readable by its owner only
+ * where the file system supports it.
+ */
+public class MappedFileTokenStore implements AccessTokenStore, Closeable {
+
+    /**
+     * Size of the token file.
+     */
+    public static final int FILE_SIZE = 8192;
+
+    private static final int MAGIC = 0x48435454;
+    private static final int VERSION = 1;
+
+    // Layout of the file, the sequence is odd while a token is written.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int EXPIRES_AT_OFFSET = 16;
+    private static final int LENGTH_OFFSET = 24;
+    private static final int CHECKSUM_OFFSET = 28;
+    private static final int TOKEN_OFFSET = 32;
+    private static final int MAX_TOKEN_BYTES = FILE_SIZE - TOKEN_OFFSET;
+
+    private static final int MAX_READ_ATTEMPTS = 8;
+
+    // Returned by decode when a write was in progress.
+    private static final AccessToken INCONSISTENT =
+            AccessToken.builder().token("").build();
+
+    // A file lock is held by the whole JVM, the stores using the same file
+    // in one JVM take turns on this lock before locking the file.
+    private static final ConcurrentMap<Path, Object> JVM_LOCKS =
+            new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Object jvmLock;
+
+    /**
+     * @param file The token file, created if it does not exist.
+     * @throws IOException If the file cannot be mapped or is not a token
+     *                     file.
+     */
+    public MappedFileTokenStore(final Path file) throws IOException {
+
+        createOwnerOnly(file);
+
+        this.file = file.toRealPath();
+        this.channel = FileChannel.open(this.file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+        try {
+            long size = channel.size();
+            if (size != 0 && size != FILE_SIZE) {
+                throw new IOException(this.file + " is not a token file");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    FILE_SIZE);
+            int magic = buffer.getInt(MAGIC_OFFSET);
+            if (magic != 0 && (magic != MAGIC
+                    || buffer.getInt(VERSION_OFFSET) != VERSION)) {
+                throw new IOException(this.file + " is not a token file");
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        this.jvmLock = JVM_LOCKS.computeIfAbsent(this.file, p -> new Object());
+    }
+
+    /**
+     * @return The stored token without locking the file, or null if there
+     * is none.
+     * @throws IOException If the file cannot be locked.
+     */
+    public AccessToken read() throws IOException {
+
+        for (int i = 0; i < MAX_READ_ATTEMPTS; i++) {
+            AccessToken token = decode();
+            if (token != INCONSISTENT) {
+                return token;
+            }
+            Thread.yield();
+        }
+
+        // A writer is slow or died while writing, wait for the lock.
+        synchronized (jvmLock) {
+            try (FileLock lock = channel.lock()) {
+                AccessToken token = decode();
+                return token == INCONSISTENT ? null : token;
+            }
+        }
+    }
+
+    @Override
+    public AccessToken refresh(final Predicate<AccessToken> usable,
+                               final Supplier<AccessToken> login)
+            throws IOException {
+
+        AccessToken stored = read();
+        if (usable.test(stored)) {
+            return stored;
+        }
+
+        synchronized (jvmLock) {
+            try (FileLock lock = channel.lock()) {
+                // Another process may have logged in while we waited.
+                stored = decode();
+                if (stored != INCONSISTENT && usable.test(stored)) {
+                    return stored;
+                }
+
+                AccessToken token = login.get();
+                write(token);
+                return token;
+            }
+        }
+    }
+
+    /**
+     * @return The token file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private AccessToken decode() {
+
+        long sequence = buffer.getLong(SEQUENCE_OFFSET);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            return null;
+        }
+        long expiresAt = buffer.getLong(EXPIRES_AT_OFFSET);
+        int length = buffer.getInt(LENGTH_OFFSET);
+        int checksum = buffer.getInt(CHECKSUM_OFFSET);
+        if ((sequence & 1) != 0 || length < 0 || length > MAX_TOKEN_BYTES) {
+            return INCONSISTENT;
+        }
+
+        byte[] token = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(TOKEN_OFFSET);
+        view.get(token);
+
+        // The checksum detects a write overlapping the read, the buffer does
+        // not order the accesses across processes.
+        if (buffer.getLong(SEQUENCE_OFFSET) != sequence
+                || checksum != checksum(expiresAt, token)) {
+            return INCONSISTENT;
+        }
+
+        return AccessToken.builder()
+                .token(new String(token, StandardCharsets.UTF_8))
+                .expiresAtMillis(expiresAt)
+                .build();
+    }
+
+    private void write(final AccessToken accessToken) throws IOException {
+
+        byte[] token = accessToken.getToken().getBytes(StandardCharsets.UTF_8);
+        if (token.length > MAX_TOKEN_BYTES) {
+            throw new IOException("The accessToken is longer than "
+                    + MAX_TOKEN_BYTES + " bytes");
+        }
+
+        long sequence = buffer.getLong(SEQUENCE_OFFSET);
+        // An odd sequence left by a dead writer is ended by this write.
+        sequence += (sequence & 1) == 0 ? 1 : 2;
+        buffer.putLong(SEQUENCE_OFFSET, sequence);
+
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putLong(EXPIRES_AT_OFFSET, accessToken.getExpiresAtMillis());
+        buffer.putInt(LENGTH_OFFSET, token.length);
+        ByteBuffer view = buffer.duplicate();
+        view.position(TOKEN_OFFSET);
+        view.put(token);
+        buffer.putInt(CHECKSUM_OFFSET,
+                checksum(accessToken.getExpiresAtMillis(), token));
+
+        buffer.putLong(SEQUENCE_OFFSET, sequence + 1);
+    }
+
+    private static int checksum(final long expiresAt, final byte[] token) {
+
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, expiresAt)
+                .array());
+        crc.update(token);
+        return (int) crc.getValue();
+    }
+
+    private static void createOwnerOnly(final Path file) throws IOException {
+
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rw-------")));
+        } catch (FileAlreadyExistsException ex) {
+            // Shared with the other processes.
+        } catch (UnsupportedOperationException ex) {
+            // Not a POSIX file system, the channel creates the file.
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+import com.amazon.hub.counter.helpers.DaemonThreadFactory;
+import com.amazon.hub.counter.transport.HttpTransport;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the accessTokens of several client credentials, so a single JVM can
+ * manage the stores of several security profiles.
+ * Every tenant, identified by its client id and scope, has its own
+ * {@link CachingAccessTokenProvider}. Reading a cached token takes no lock,
+ * and the tokens are refreshed in the background independently of each
+ * other. A single thread shared by every tenant times the refreshes and the
+ * eviction, the logins run on a pool bounded by
+ * {@link TokenCachePolicy#getMaxConcurrentLogins()}. The logins of every
+ * tenant are sent through the same transport.
+ */
+public class MultiTenantTokenCache implements Closeable {
+
+    private static final long MIN_SWEEP_INTERVAL_MILLIS = 100;
+    private static final long MAX_SWEEP_INTERVAL_MILLIS = 60_000;
+    private static final long LOGIN_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final LoginClient loginClient;
+    private final TokenCachePolicy policy;
+    private final ConcurrentMap<String, Tenant> tenants =
+            new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor logins;
+
+    /**
+     * @param authEndpoint  URL for the authentication endpoint to be used.
+     * @param httpTransport The transport the logins are sent through, it can
+     *                      be the transport shared by the API handlers of
+     *                      every tenant.
+     * @param policy        The cache settings.
+     */
+    public MultiTenantTokenCache(final String authEndpoint,
+                                 final HttpTransport httpTransport,
+                                 final TokenCachePolicy policy) {
+
+        this.loginClient = new LoginClient(authEndpoint, httpTransport);
+        this.policy = policy;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new DaemonThreadFactory("amazon-hub-counter-token-cache"));
+        this.logins = new ThreadPoolExecutor(policy.getMaxConcurrentLogins(),
+                policy.getMaxConcurrentLogins(),
+                LOGIN_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("amazon-hub-counter-token-login"));
+        this.logins.allowCoreThreadTimeOut(true);
+
+        long sweepInterval = Math.max(MIN_SWEEP_INTERVAL_MILLIS, Math.min(
+                MAX_SWEEP_INTERVAL_MILLIS, policy.getIdleTimeoutMillis() / 2));
+        this.scheduler.scheduleWithFixedDelay(this::evictIdleTenants,
+                sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param clientCredentials The credentials of the tenant.
+     * @return A valid accessToken of the tenant.
+     */
+    public String getAccessToken(final ClientCredentials clientCredentials) {
+        return getTenant(clientCredentials).getAccessToken();
+    }
+
+    /**
+     * @param clientCredentials The credentials of the tenant.
+     * @return A provider of the accessToken of the tenant, it keeps working
+     * after the tenant is evicted.
+     */
+    public AccessTokenProvider getAccessTokenProvider(
+            final ClientCredentials clientCredentials) {
+
+        return new AccessTokenProvider() {
+
+            @Override
+            public String getAccessToken() {
+                return getTenant(clientCredentials).getAccessToken();
+            }
+
+            @Override
+            public String refreshAccessToken(final String rejectedToken) {
+                return getTenant(clientCredentials).provider
+                        .refreshAccessToken(rejectedToken);
+            }
+        };
+    }
+
+    /**
+     * @return The number of tenants cached.
+     */
+    public int getTenantCount() {
+        return tenants.size();
+    }
+
+    /**
+     * Stops refreshing the tokens of every tenant.
+     */
+    @Override
+    public void close() {
+
+        scheduler.shutdownNow();
+        logins.shutdownNow();
+        tenants.values().forEach(tenant -> tenant.provider.close());
+        tenants.clear();
+    }
+
+    private Tenant getTenant(final ClientCredentials clientCredentials) {
+
+        String key = clientCredentials.getClientId() + " "
+                + clientCredentials.getAuthScope();
+        Tenant tenant = tenants.get(key);
+
+        if (tenant == null) {
+            tenant = tenants.computeIfAbsent(key,
+                    k -> new Tenant(clientCredentials));
+            if (tenants.size() > policy.getMaxTenants()) {
+                evictLeastRecentlyUsed(tenant);
+            }
+        }
+
+        tenant.lastAccessMillis = System.currentTimeMillis();
+
+        return tenant;
+    }
+
+    private void evictIdleTenants() {
+
+        long idleSince = System.currentTimeMillis()
+                - policy.getIdleTimeoutMillis();
+
+        tenants.forEach((key, tenant) -> {
+            if (tenant.lastAccessMillis < idleSince) {
+                evict(key, tenant);
+            }
+        });
+    }
+
+    private void evictLeastRecentlyUsed(final Tenant added) {
+
+        Map.Entry<String, Tenant> oldest = null;
+
+        for (Map.Entry<String, Tenant> entry : tenants.entrySet()) {
+            if (entry.getValue() != added && (oldest == null
+                    || entry.getValue().lastAccessMillis
+                    < oldest.getValue().lastAccessMillis)) {
+                oldest = entry;
+            }
+        }
+
+        if (oldest != null) {
+            evict(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private void evict(final String key, final Tenant tenant) {
+
+        if (tenants.remove(key, tenant)) {
+            tenant.provider.close();
+        }
+    }
+
+    /**
+     * The cached token of a single tenant.
+     */
+    private final class Tenant {
+
+        private final CachingAccessTokenProvider provider;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private Tenant(final ClientCredentials clientCredentials) {
+            this.provider = new CachingAccessTokenProvider(
+                    () -> loginClient.login(clientCredentials),
+                    policy.getRefreshBeforeExpiryMillis(), scheduler, logins);
+        }
+
+        private String getAccessToken() {
+            return provider.getAccessToken();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.login;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link MultiTenantTokenCache}.
+ */
+@Getter
+@Builder
+public class TokenCachePolicy {
+    /**
+     * Maximum number of tenants cached, the least recently used tenant is
+     * evicted when a new one is added over the limit.
+     */
+    @Builder.Default
+    private final int maxTenants = 1000;
+    /**
+     * Tenants whose token has not been requested for this time are evicted,
+     * and their token is no longer refreshed.
+     */
+    @Builder.Default
+    private final long idleTimeoutMillis = 3_600_000;
+    /**
+     * Time before the expiration the token of a tenant is renewed.
+     */
+    @Builder.Default
+    private final long refreshBeforeExpiryMillis =
+            CachingAccessTokenProvider.DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS;
+    /**
+     * Maximum number of background logins running at once, each on its own
+     * thread, the threads are stopped when they have been idle for a minute.
+     */
+    @Builder.Default
+    private final int maxConcurrentLogins = 4;
+}
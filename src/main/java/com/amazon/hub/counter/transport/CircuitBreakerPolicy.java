@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link CircuitBreakingHttpTransport}.
+ */
+@Getter
+@Builder
+public class CircuitBreakerPolicy {
+    /**
+     * Number of the most recent calls the failure and slow call rates are
+     * computed on.
+     */
+    @Builder.Default
+    private final int slidingWindowSize = 20;
+    /**
+     * Number of calls recorded before the rates can open the circuit.
+     */
+    @Builder.Default
+    private final int minimumCalls = 10;
+    /**
+     * Ratio of failed calls, between 0 and 1, that opens the circuit. A call
+     * fails when it throws an I/O error or the server answers with a 5xx
+     * status.
+     */
+    @Builder.Default
+    private final double failureRateThreshold = 0.5;
+    /**
+     * Ratio of slow calls, between 0 and 1, that opens the circuit.
+     */
+    @Builder.Default
+    private final double slowCallRateThreshold = 0.8;
+    /**
+     * Duration in milliseconds from which a call is considered slow.
+     */
+    @Builder.Default
+    private final long slowCallDurationMillis = 10_000;
+    /**
+     * Time in milliseconds the circuit stays open before trial calls are
+     * let through.
+     */
+    @Builder.Default
+    private final long openDurationMillis = 30_000;
+    /**
+     * Number of trial calls that must succeed to close the circuit again.
+     */
+    @Builder.Default
+    private final int halfOpenCalls = 3;
+}
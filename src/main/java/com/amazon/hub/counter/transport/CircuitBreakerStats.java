@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Snapshot of a single circuit of a {@link CircuitBreakingHttpTransport}.
+ */
+@Getter
+@Builder
+public class CircuitBreakerStats {
+    private final String circuit;
+    private final CircuitState state;
+    /**
+     * Ratio of failed calls in the sliding window, -1 until the minimum
+     * number of calls is recorded.
+     */
+    private final double failureRate;
+    /**
+     * Ratio of slow calls in the sliding window, -1 until the minimum number
+     * of calls is recorded.
+     */
+    private final double slowCallRate;
+    /**
+     * Calls failed fast while the circuit was open.
+     */
+    private final long rejectedCalls;
+}
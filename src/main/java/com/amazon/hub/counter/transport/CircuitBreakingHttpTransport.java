@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.EndpointFamily;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport that stops sending requests to an endpoint that keeps failing.
+ * Every base URL and {@link EndpointFamily} has its own circuit. A circuit
+ * opens when the failure rate or the slow call rate of its most recent calls
+ * reaches the threshold of the {@link CircuitBreakerPolicy}. While it is open
+ * the requests fail at once with a {@link CircuitBreakerOpenException}, instead
+ * of holding the calling thread until the socket times out. Once the open
+ * duration elapses a few trial calls are let through, and the circuit closes
+ * again when all of them succeed.
+ */
+public class CircuitBreakingHttpTransport implements HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(
+            CircuitBreakingHttpTransport.class.getName());
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final HttpTransport delegate;
+    private final CircuitBreakerPolicy policy;
+    private final ConcurrentMap<String, Circuit> circuits =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     */
+    public CircuitBreakingHttpTransport(final HttpTransport delegate) {
+        this(delegate, CircuitBreakerPolicy.builder().build());
+    }
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     * @param policy   The circuit breaker settings.
+     */
+    public CircuitBreakingHttpTransport(final HttpTransport delegate,
+                                        final CircuitBreakerPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+
+        Circuit circuit = circuits.computeIfAbsent(getCircuitName(request),
+                Circuit::new);
+
+        if (!circuit.tryAcquire()) {
+            throw new CircuitBreakerOpenException(circuit.name);
+        }
+
+        long start = System.nanoTime();
+        HttpResponse response;
+
+        try {
+            response = delegate.execute(request);
+        } catch (IOException | RuntimeException ex) {
+            circuit.onResult(System.nanoTime() - start, true);
+            throw ex;
+        }
+
+        circuit.onResult(System.nanoTime() - start,
+                response.getStatusCode() >= 500);
+
+        return response;
+    }
+
+    /**
+     * @return The state of every circuit, by circuit name.
+     */
+    public Map<String, CircuitBreakerStats> getStats() {
+
+        Map<String, CircuitBreakerStats> stats = new TreeMap<>();
+
+        circuits.forEach((name, circuit) -> stats.put(name,
+                circuit.getStats()));
+
+        return stats;
+    }
+
+    private static String getCircuitName(final HttpRequest request)
+            throws IOException {
+
+        URL url = new URL(request.getUrl());
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+
+        return url.getProtocol() + "://" + url.getHost() + ":" + port + " "
+                + EndpointFamily.of(request.getMethod(), request.getUrl());
+    }
+
+    /**
+     * Records the outcome of the calls of a single circuit in a ring buffer.
+     */
+    private final class Circuit {
+
+        private final String name;
+        private final byte[] outcomes = new byte[
+                policy.getSlidingWindowSize()];
+        private int next;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+        private CircuitState state = CircuitState.CLOSED;
+        private long openUntilNanos;
+        private int halfOpenPermits;
+        private int halfOpenSuccesses;
+        private long rejectedCalls;
+
+        private Circuit(final String name) {
+            this.name = name;
+        }
+
+        private synchronized boolean tryAcquire() {
+
+            if (state == CircuitState.OPEN
+                    && System.nanoTime() - openUntilNanos >= 0) {
+                logger.info("Circuit [{}] is half open", name);
+                state = CircuitState.HALF_OPEN;
+                halfOpenPermits = policy.getHalfOpenCalls();
+                halfOpenSuccesses = 0;
+            }
+
+            if (state == CircuitState.CLOSED) {
+                return true;
+            }
+
+            if (state == CircuitState.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                return true;
+            }
+
+            rejectedCalls++;
+
+            return false;
+        }
+
+        private synchronized void onResult(final long durationNanos,
+                                           final boolean failed) {
+
+            boolean slow = durationNanos >= TimeUnit.MILLISECONDS.toNanos(
+                    policy.getSlowCallDurationMillis());
+
+            if (state == CircuitState.HALF_OPEN) {
+                if (failed || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= policy.getHalfOpenCalls()) {
+                    logger.info("Circuit [{}] is closed", name);
+                    state = CircuitState.CLOSED;
+                    reset();
+                }
+                return;
+            }
+
+            if (state == CircuitState.OPEN) {
+                // The call started before the circuit opened.
+                return;
+            }
+
+            record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+
+            if (calls >= policy.getMinimumCalls()
+                    && (failureRate() >= policy.getFailureRateThreshold()
+                    || slowCallRate() >= policy.getSlowCallRateThreshold())) {
+                open();
+            }
+        }
+
+        private void record(final byte outcome) {
+
+            if (calls == outcomes.length) {
+                byte evicted = outcomes[next];
+                failures -= evicted & FAILED;
+                slowCalls -= (evicted & SLOW) >> 1;
+            } else {
+                calls++;
+            }
+
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            failures += outcome & FAILED;
+            slowCalls += (outcome & SLOW) >> 1;
+        }
+
+        private void open() {
+
+            logger.warn("Circuit [{}] is open for {} ms", name,
+                    policy.getOpenDurationMillis());
+            state = CircuitState.OPEN;
+            openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS
+                    .toNanos(policy.getOpenDurationMillis());
+            reset();
+        }
+
+        private void reset() {
+
+            next = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+
+        private double failureRate() {
+            return (double) failures / calls;
+        }
+
+        private double slowCallRate() {
+            return (double) slowCalls / calls;
+        }
+
+        private synchronized CircuitBreakerStats getStats() {
+
+            boolean measured = calls >= policy.getMinimumCalls();
+
+            return CircuitBreakerStats.builder()
+                    .circuit(name)
+                    .state(state)
+                    .failureRate(measured ? failureRate() : -1)
+                    .slowCallRate(measured ? slowCallRate() : -1)
+                    .rejectedCalls(rejectedCalls)
+                    .build();
+        }
+    }
+}
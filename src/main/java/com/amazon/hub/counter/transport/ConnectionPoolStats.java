@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Snapshot of the connection usage of a single host of a
+ * {@link PooledHttpTransport}.
+ */
+@Getter
+@Builder
+public class ConnectionPoolStats {
+    private final String host;
+    private final int maxConnections;
+    private final int leasedConnections;
+    private final int pendingRequests;
+    private final long requests;
+    /**
+     * Number of new connections opened, only known for HTTPS hosts, -1
+     * otherwise.
+     */
+    private final long connectionsOpened;
+    /**
+     * Number of request body bytes written to the connections, after
+     * compression.
+     */
+    private final long bytesSent;
+    /**
+     * Number of response body bytes read from the connections, before
+     * decompression.
+     */
+    private final long bytesReceived;
+
+    /**
+     * @return Number of requests served by an already open connection, -1 if
+     * it is not known for this host.
+     */
+    public long getConnectionsReused() {
+
+        if (connectionsOpened < 0) {
+            return -1;
+        }
+
+        return Math.max(0, requests - connectionsOpened);
+    }
+}
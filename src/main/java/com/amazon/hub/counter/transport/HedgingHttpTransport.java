@@ -0,0 +1,332 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.DaemonThreadFactory;
+import com.amazon.hub.counter.helpers.HttpMethod;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transport that cuts the tail latency of GET requests by sending a second
+ * identical request when the first one is slow.
+ * A GET request without response after the configured percentile of the
+ * recent latencies is sent again, and the first response received is used.
+ * The other response is closed as soon as it arrives. The hedges are bounded
+ * by a budget that grows by {@link HedgingPolicy#getMaxHedgeRatio()} on every
+ * GET request, so a slow API does not double the load sent to it.
+ * Other methods are sent as they are, as they may not be idempotent.
+ */
+public class HedgingHttpTransport implements HttpTransport, Closeable {
+
+    private static final double MAX_HEDGE_BUDGET = 10;
+
+    private final HttpTransport delegate;
+    private final HedgingPolicy policy;
+    private final Executor executor;
+    private final ExecutorService ownedExecutorService;
+    private final long[] latencies;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    // Guarded by latencies
+    private int nextLatency;
+    private int recordedLatencies;
+
+    // Guarded by this
+    private double hedgeBudget;
+
+    /**
+     * The requests are sent from a pool of daemon threads owned by the
+     * transport, it is shut down when the transport is closed.
+     *
+     * @param delegate The transport the requests are sent through.
+     * @param policy   The hedging settings.
+     */
+    public HedgingHttpTransport(final HttpTransport delegate,
+                                final HedgingPolicy policy) {
+        this(delegate, policy, Executors.newCachedThreadPool(
+                new DaemonThreadFactory("amazon-hub-counter-hedging")), true);
+    }
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     * @param policy   The hedging settings.
+     * @param executor The executor the GET requests are sent from, it needs
+     *                 a free thread for every hedge.
+     */
+    public HedgingHttpTransport(final HttpTransport delegate,
+                                final HedgingPolicy policy,
+                                final Executor executor) {
+        this(delegate, policy, executor, false);
+    }
+
+    private HedgingHttpTransport(final HttpTransport delegate,
+                                 final HedgingPolicy policy,
+                                 final Executor executor,
+                                 final boolean ownsExecutor) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.executor = executor;
+        this.ownedExecutorService = ownsExecutor
+                ? (ExecutorService) executor : null;
+        this.latencies = new long[policy.getLatencyWindowSize()];
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return delegate.execute(request);
+        }
+
+        requests.increment();
+        addHedgeBudget();
+
+        long delay = getHedgeDelayMillis();
+        Attempts attempts = new Attempts(request);
+
+        attempts.send(false);
+
+        try {
+            if (delay < 0) {
+                return attempts.result.get();
+            }
+            try {
+                return attempts.result.get(delay, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                if (!attempts.result.isDone() && tryHedge()
+                        && attempts.send(true)) {
+                    hedgesFired.increment();
+                }
+            }
+            return attempts.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            attempts.abandon();
+            throw new InterruptedIOException("Interrupted while waiting for "
+                    + "the response.");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return The number of GET requests sent through this transport.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return The number of hedges sent.
+     */
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    /**
+     * @return The number of hedges that responded before the request they
+     * hedged.
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * @return The current wait in milliseconds before hedging a request, -1
+     * while there are not enough latencies recorded.
+     */
+    public long getHedgeDelayMillis() {
+
+        long[] window;
+
+        synchronized (latencies) {
+            if (recordedLatencies < policy.getMinimumSamples()) {
+                return -1;
+            }
+            window = Arrays.copyOf(latencies, recordedLatencies);
+        }
+
+        Arrays.sort(window);
+
+        int index = (int) Math.ceil(policy.getLatencyPercentile()
+                * window.length) - 1;
+
+        return Math.max(policy.getMinDelayMillis(),
+                window[Math.max(0, Math.min(index, window.length - 1))]);
+    }
+
+    /**
+     * Shuts down the threads created by this transport, requests already
+     * sent are completed.
+     */
+    @Override
+    public void close() {
+
+        if (ownedExecutorService != null) {
+            ownedExecutorService.shutdown();
+        }
+    }
+
+    private void recordLatency(final long latencyMillis) {
+
+        synchronized (latencies) {
+            latencies[nextLatency] = latencyMillis;
+            nextLatency = (nextLatency + 1) % latencies.length;
+            recordedLatencies = Math.min(recordedLatencies + 1,
+                    latencies.length);
+        }
+    }
+
+    private synchronized void addHedgeBudget() {
+        hedgeBudget = Math.min(MAX_HEDGE_BUDGET,
+                hedgeBudget + policy.getMaxHedgeRatio());
+    }
+
+    private synchronized boolean tryHedge() {
+
+        if (hedgeBudget < 1) {
+            return false;
+        }
+
+        hedgeBudget--;
+
+        return true;
+    }
+
+    /**
+     * The copies of a single GET request, the first response completes the
+     * result.
+     */
+    private final class Attempts {
+
+        private final HttpRequest request;
+        private final CompletableFuture<HttpResponse> result =
+                new CompletableFuture<>();
+        private final AtomicInteger sent = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean decided = new AtomicBoolean();
+
+        private Attempts(final HttpRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * @return False if the result was decided before the copy could be
+         * sent.
+         */
+        private boolean send(final boolean hedge) {
+
+            // Counted before the result is checked, so a copy failing now
+            // waits for this one.
+            sent.incrementAndGet();
+
+            if (result.isDone()) {
+                return false;
+            }
+
+            long start = System.nanoTime();
+
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return delegate.execute(request);
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                }
+            }, executor).whenComplete((response, ex) -> {
+                if (ex != null) {
+                    // Fail only once every copy has failed.
+                    if (failed.incrementAndGet() == sent.get()) {
+                        result.completeExceptionally(
+                                ex instanceof CompletionException
+                                        ? ex.getCause() : ex);
+                    }
+                    return;
+                }
+                recordLatency(TimeUnit.NANOSECONDS.toMillis(
+                        System.nanoTime() - start));
+                if (!decided.compareAndSet(false, true)) {
+                    closeQuietly(response);
+                    return;
+                }
+                // Counted before the caller is released by the result.
+                if (hedge) {
+                    hedgesWon.increment();
+                }
+                // The result may have failed before, when every copy sent
+                // at that time had failed.
+                if (!result.complete(response)) {
+                    if (hedge) {
+                        hedgesWon.decrement();
+                    }
+                    closeQuietly(response);
+                }
+            });
+
+            return true;
+        }
+
+        /**
+         * Closes the response of a request the caller stopped waiting for.
+         */
+        private void abandon() {
+            if (decided.compareAndSet(false, true)) {
+                result.complete(null);
+            } else {
+                result.thenAccept(HedgingHttpTransport::closeQuietly);
+            }
+        }
+    }
+
+    private static void closeQuietly(final HttpResponse response) {
+
+        if (response == null) {
+            return;
+        }
+
+        try {
+            response.close();
+        } catch (IOException ex) {
+            // The response is discarded.
+        }
+    }
+}
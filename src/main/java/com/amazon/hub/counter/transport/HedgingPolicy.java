@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link HedgingHttpTransport}.
+ */
+@Getter
+@Builder
+public class HedgingPolicy {
+    /**
+     * Percentile of the recent latencies, between 0 and 1, after which a GET
+     * request without response is hedged.
+     */
+    @Builder.Default
+    private final double latencyPercentile = 0.95;
+    /**
+     * Number of the most recent latencies the percentile is computed on.
+     */
+    @Builder.Default
+    private final int latencyWindowSize = 100;
+    /**
+     * Number of latencies recorded before any request is hedged.
+     */
+    @Builder.Default
+    private final int minimumSamples = 20;
+    /**
+     * Lower bound in milliseconds of the wait before hedging a request.
+     */
+    @Builder.Default
+    private final long minDelayMillis = 5;
+    /**
+     * Maximum ratio of hedged requests to GET requests, between 0 and 1.
+     */
+    @Builder.Default
+    private final double maxHedgeRatio = 0.1;
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents the response of an HTTP request sent through an
+ * {@link HttpTransport}. The response has to be closed once its body has been
+ * consumed, this hands the connection back to the transport.
+ */
+public class HttpResponse implements Closeable {
+
+    private static final InputStream EMPTY_BODY =
+            new ByteArrayInputStream(new byte[0]);
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * @param statusCode The HTTP status code.
+     * @param headers    The response headers.
+     * @param body       The response body, null if the response has no body.
+     * @param onClose    Action executed once when the response is closed, can
+     *                   be null.
+     */
+    public HttpResponse(final int statusCode,
+                        final Map<String, List<String>> headers,
+                        final InputStream body,
+                        final Runnable onClose) {
+
+        this.statusCode = statusCode;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                // HttpURLConnection maps the status line to a null key.
+                if (name != null) {
+                    this.headers.put(name, values);
+                }
+            });
+        }
+        this.body = body != null ? body : EMPTY_BODY;
+        this.onClose = onClose;
+    }
+
+    /**
+     * @return The HTTP status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return True if the status code is in the 2xx range.
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * @return The response headers, header names are case insensitive.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * @param name The header name.
+     * @return The first value of the header or null if it is not present.
+     */
+    public String getHeader(final String name) {
+
+        List<String> values = headers.get(name);
+
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return The response body stream.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            body.close();
+        } finally {
+            if (onClose != null) {
+                onClose.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.entities.ErrorResponse;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the server answers a request with a non successful status code.
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+    private final ErrorResponse errorResponse;
+
+    /**
+     * @param statusCode    The HTTP status code of the response.
+     * @param errorResponse The error returned by the API, null if the body is
+     *                      not an error envelope.
+     */
+    public HttpStatusException(final int statusCode,
+                               final ErrorResponse errorResponse) {
+        super(errorResponse != null && errorResponse.getMessage() != null
+                ? String.format("Server returned HTTP response code: %d: %s",
+                statusCode, errorResponse.getMessage())
+                : String.format("Server returned HTTP response code: %d",
+                statusCode));
+        this.statusCode = statusCode;
+        this.errorResponse = errorResponse;
+    }
+
+    /**
+     * @return The HTTP status code of the response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return The error returned by the API, null if the body is not an error
+     * envelope.
+     */
+    public ErrorResponse getErrorResponse() {
+        return errorResponse;
+    }
+
+    /**
+     * A POST failing this way may have been processed, the
+     * {@link RetryingHttpTransport} only retries it on a 429 by default.
+     *
+     * @return True if the API flagged the error as retryable, or the status
+     * code is 429 or 5xx.
+     */
+    public boolean isRetryable() {
+        return isRetryable(statusCode, errorResponse);
+    }
+
+    static boolean isRetryable(final int statusCode,
+                               final ErrorResponse errorResponse) {
+
+        return statusCode == 429 || statusCode >= 500
+                || errorResponse != null
+                && Boolean.TRUE.equals(errorResponse.getRetryable());
+    }
+}
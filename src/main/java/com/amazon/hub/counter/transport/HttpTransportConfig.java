@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link PooledHttpTransport}.
+ */
+@Getter
+@Builder
+public class HttpTransportConfig {
+    /**
+     * Timeout in milliseconds for establishing a new connection.
+     */
+    @Builder.Default
+    private final int connectTimeoutMillis = 10_000;
+    /**
+     * Timeout in milliseconds for reading from an established connection.
+     */
+    @Builder.Default
+    private final int readTimeoutMillis = 30_000;
+    /**
+     * Maximum number of connections that can be leased at the same time for
+     * a single host.
+     */
+    @Builder.Default
+    private final int maxConnectionsPerHost = 20;
+    /**
+     * Maximum time in milliseconds a request waits for a connection of its
+     * host to be released.
+     */
+    @Builder.Default
+    private final long connectionAcquireTimeoutMillis = 30_000;
+    /**
+     * Enables TCP_NODELAY on the sockets opened for HTTPS hosts.
+     */
+    @Builder.Default
+    private final boolean tcpNoDelay = true;
+    /**
+     * Maximum size in bytes of a response body, reading past it fails with a
+     * {@link ResponseTooLargeException}. Not bounded by default.
+     */
+    @Builder.Default
+    private final long maxResponseBodyBytes = Long.MAX_VALUE;
+    /**
+     * Size in bytes of the chunks used to send request bodies of unknown
+     * length.
+     */
+    @Builder.Default
+    private final int requestChunkSize = 8192;
+    /**
+     * Asks the server for gzip compressed responses, they are decompressed
+     * while they are read.
+     */
+    @Builder.Default
+    private final boolean acceptGzip = true;
+    /**
+     * Compresses the request bodies with gzip.
+     */
+    @Builder.Default
+    private final boolean gzipRequests = false;
+    /**
+     * Request bodies of known length smaller than this number of bytes are
+     * not compressed. Bodies of unknown length are always compressed when
+     * gzipRequests is enabled.
+     */
+    @Builder.Default
+    private final long gzipRequestMinBytes = 1024;
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.HttpHeaders;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.HttpsURLConnection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Default {@link HttpTransport}, sends the requests with
+ * {@link HttpURLConnection} keeping the connections alive between requests.
+ * <p>
+ * The number of connections leased at the same time is bounded per host,
+ * requests exceeding the bound wait for a connection to be released. Once a
+ * response is closed its connection goes back to the JDK keep-alive cache and
+ * is reused by the next request to the same host, so no TCP and TLS handshake
+ * is paid again. The JDK keeps up to {@code http.maxConnections} idle
+ * connections per host (5 by default), set this system property to
+ * {@link HttpTransportConfig#getMaxConnectionsPerHost()} to keep all of them.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(
+            PooledHttpTransport.class.getName());
+
+    private static final String HTTPS = "https";
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final HttpTransportConfig config;
+    private final ConcurrentMap<String, HostPool> hostPools =
+            new ConcurrentHashMap<>();
+
+    public PooledHttpTransport() {
+        this(HttpTransportConfig.builder().build());
+    }
+
+    /**
+     * @param config The transport settings.
+     */
+    public PooledHttpTransport(final HttpTransportConfig config) {
+
+        if (config.getMaxConnectionsPerHost() < 1) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be "
+                    + "greater than 0.");
+        }
+
+        this.config = config;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+
+        URL url = new URL(request.getUrl());
+        HostPool hostPool = hostPools.computeIfAbsent(getHostKey(url),
+                key -> new HostPool(key, HTTPS.equals(url.getProtocol())));
+
+        hostPool.acquire();
+
+        HttpURLConnection connection = null;
+
+        try {
+            connection = openConnection(url, request, hostPool);
+
+            int statusCode = connection.getResponseCode();
+            InputStream body = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getErrorStream()
+                    : connection.getInputStream();
+
+            if (body != null) {
+                body = new CountingInputStream(body, hostPool.bytesReceived);
+
+                if (GZIP.equalsIgnoreCase(connection.getHeaderField(
+                        HttpHeaders.CONTENT_ENCODING))) {
+                    body = decompress(body);
+                }
+            }
+
+            if (body != null
+                    && config.getMaxResponseBodyBytes() != Long.MAX_VALUE) {
+                body = new BoundedInputStream(body,
+                        config.getMaxResponseBodyBytes());
+            }
+
+            return new HttpResponse(statusCode, connection.getHeaderFields(),
+                    body, hostPool::release);
+
+        } catch (IOException | RuntimeException ex) {
+            // A failed connection cannot be reused, close its socket.
+            if (connection != null) {
+                connection.disconnect();
+            }
+            hostPool.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * A 204 or HEAD response has no gzip header to read, it is returned
+     * empty instead of failing on the end of the stream.
+     */
+    private static InputStream decompress(final InputStream body)
+            throws IOException {
+
+        PushbackInputStream pushback = new PushbackInputStream(body, 1);
+        int first = pushback.read();
+
+        if (first == -1) {
+            return pushback;
+        }
+
+        pushback.unread(first);
+
+        return new GZIPInputStream(pushback, BUFFER_SIZE);
+    }
+
+    private HttpURLConnection openConnection(final URL url,
+                                             final HttpRequest request,
+                                             final HostPool hostPool)
+            throws IOException {
+
+        final HttpURLConnection connection =
+                (HttpURLConnection) url.openConnection();
+
+        if (connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(
+                    hostPool.sslSocketFactory);
+        }
+
+        connection.setConnectTimeout(config.getConnectTimeoutMillis());
+        connection.setReadTimeout(config.getReadTimeoutMillis());
+        connection.setUseCaches(false);
+        connection.setRequestMethod(request.getMethod());
+
+        if (config.isAcceptGzip()) {
+            connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        }
+
+        request.getHeaders().forEach(connection::setRequestProperty);
+
+        RequestBody body = request.getBody();
+
+        if (body != null) {
+            connection.setRequestProperty(HttpHeaders.CONTENT_TYPE,
+                    body.getContentType());
+            connection.setDoOutput(true);
+
+            boolean gzip = shouldCompress(body);
+
+            if (gzip) {
+                connection.setRequestProperty(HttpHeaders.CONTENT_ENCODING,
+                        GZIP);
+            }
+
+            if (body.getContentLength() >= 0 && !gzip) {
+                connection.setFixedLengthStreamingMode(
+                        body.getContentLength());
+            } else {
+                connection.setChunkedStreamingMode(
+                        config.getRequestChunkSize());
+            }
+
+            try (OutputStream outputStream = new CountingOutputStream(
+                    connection.getOutputStream(), hostPool.bytesSent)) {
+                if (gzip) {
+                    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(
+                            outputStream, BUFFER_SIZE);
+                    body.writeTo(gzipOutputStream);
+                    gzipOutputStream.finish();
+                } else {
+                    body.writeTo(outputStream);
+                }
+            }
+        }
+
+        return connection;
+    }
+
+    private boolean shouldCompress(final RequestBody body) {
+
+        return config.isGzipRequests()
+                && (body.getContentLength() < 0
+                || body.getContentLength() >= config.getGzipRequestMinBytes());
+    }
+
+    /**
+     * @return The connection usage of every host reached by this transport,
+     * keyed by host.
+     */
+    public Map<String, ConnectionPoolStats> getStats() {
+
+        Map<String, ConnectionPoolStats> stats = new TreeMap<>();
+
+        hostPools.forEach((key, hostPool) -> stats.put(key,
+                hostPool.getStats()));
+
+        return stats;
+    }
+
+    private static String getHostKey(final URL url) {
+
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+
+    /**
+     * Bounds and tracks the connections leased for a single host.
+     */
+    private final class HostPool {
+
+        private final String host;
+        private final Semaphore permits;
+        private final TrackingSSLSocketFactory sslSocketFactory;
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+
+        private HostPool(final String host, final boolean secure) {
+
+            this.host = host;
+            this.permits = new Semaphore(config.getMaxConnectionsPerHost(),
+                    true);
+            // The JDK only reuses a kept-alive HTTPS connection for the same
+            // socket factory instance, so it is created once per host.
+            this.sslSocketFactory = secure
+                    ? new TrackingSSLSocketFactory(
+                            HttpsURLConnection.getDefaultSSLSocketFactory(),
+                            config.isTcpNoDelay())
+                    : null;
+        }
+
+        private void acquire() throws IOException {
+
+            pendingRequests.incrementAndGet();
+
+            try {
+                if (!permits.tryAcquire(
+                        config.getConnectionAcquireTimeoutMillis(),
+                        TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for a connection to: [{}]",
+                            host);
+                    throw new IOException(String.format("Timed out waiting "
+                                    + "%d ms for a connection to %s.",
+                            config.getConnectionAcquireTimeoutMillis(), host));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting "
+                        + "for a connection to " + host);
+            } finally {
+                pendingRequests.decrementAndGet();
+            }
+
+            requests.increment();
+        }
+
+        private void release() {
+            permits.release();
+        }
+
+        private ConnectionPoolStats getStats() {
+
+            return ConnectionPoolStats.builder()
+                    .host(host)
+                    .maxConnections(config.getMaxConnectionsPerHost())
+                    .leasedConnections(config.getMaxConnectionsPerHost()
+                            - permits.availablePermits())
+                    .pendingRequests(pendingRequests.get())
+                    .requests(requests.sum())
+                    .connectionsOpened(sslSocketFactory != null
+                            ? sslSocketFactory.getSocketsCreated() : -1)
+                    .bytesSent(bytesSent.sum())
+                    .bytesReceived(bytesReceived.sum())
+                    .build();
+        }
+    }
+}
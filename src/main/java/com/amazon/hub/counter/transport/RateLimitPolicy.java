@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.EndpointFamily;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Map;
+
+/**
+ * Settings of the {@link RateLimitingHttpTransport}. Every
+ * {@link EndpointFamily} has its own request rate and concurrency limit.
+ */
+@Getter
+@Builder
+public class RateLimitPolicy {
+    /**
+     * Requests per second allowed for the families without their own rate.
+     */
+    @Builder.Default
+    private final double defaultRequestsPerSecond = 10;
+    /**
+     * Requests per second allowed for a single family.
+     */
+    @Singular("requestsPerSecond")
+    private final Map<EndpointFamily, Double> requestsPerSecond;
+    /**
+     * Number of requests that can be sent at once after an idle period.
+     */
+    @Builder.Default
+    private final int burstSize = 10;
+    /**
+     * Concurrency limit of a family before any response is received.
+     */
+    @Builder.Default
+    private final int initialConcurrency = 8;
+    /**
+     * Lower bound of requests in flight the concurrency limit is cut to
+     * when the server answers 429 or 503.
+     */
+    @Builder.Default
+    private final int minConcurrency = 1;
+    /**
+     * Upper bound of requests in flight the concurrency limit grows to.
+     */
+    @Builder.Default
+    private final int maxConcurrency = 64;
+    /**
+     * The concurrency limit is multiplied by this factor when the server
+     * answers 429 or 503.
+     */
+    @Builder.Default
+    private final double backoffRatio = 0.5;
+    /**
+     * The concurrency limit grows while the latency stays under this
+     * multiple of the lowest latency observed.
+     */
+    @Builder.Default
+    private final double latencyTolerance = 2;
+    /**
+     * Maximum time in milliseconds a request waits for a token or for a
+     * concurrency slot.
+     */
+    @Builder.Default
+    private final long acquireTimeoutMillis = 60_000;
+
+    /**
+     * @param family An endpoint family.
+     * @return The requests per second allowed for the family.
+     */
+    public double getRequestsPerSecond(final EndpointFamily family) {
+        return requestsPerSecond.getOrDefault(family,
+                defaultRequestsPerSecond);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.EndpointFamily;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Snapshot of the limits of a single endpoint family of a
+ * {@link RateLimitingHttpTransport}.
+ */
+@Getter
+@Builder
+public class RateLimiterStats {
+    private final EndpointFamily family;
+    private final double requestsPerSecond;
+    /**
+     * Current adaptive limit of requests in flight.
+     */
+    private final int concurrencyLimit;
+    private final int inFlightRequests;
+    /**
+     * Requests waiting for a token or a concurrency slot.
+     */
+    private final int queuedRequests;
+    private final long requests;
+    /**
+     * Responses with a 429 or 503 status.
+     */
+    private final long throttledResponses;
+}
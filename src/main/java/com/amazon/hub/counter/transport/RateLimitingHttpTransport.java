@@ -0,0 +1,322 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.EndpointFamily;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transport that paces the requests sent through another transport, so the
+ * client stays within the throttling quotas of the API.
+ * Every {@link EndpointFamily} has a token bucket bounding its request rate,
+ * and an adaptive limit of requests in flight. The limit grows by one step
+ * per window while the latency stays close to the lowest latency observed,
+ * and it is cut by {@link RateLimitPolicy#getBackoffRatio()} when the server
+ * answers 429 or 503 (additive increase, multiplicative decrease).
+ * Requests over the limits wait in the calling thread.
+ */
+public class RateLimitingHttpTransport implements HttpTransport {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final HttpTransport delegate;
+    private final RateLimitPolicy policy;
+    private final Map<EndpointFamily, FamilyLimiter> limiters =
+            new EnumMap<>(EndpointFamily.class);
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     */
+    public RateLimitingHttpTransport(final HttpTransport delegate) {
+        this(delegate, RateLimitPolicy.builder().build());
+    }
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     * @param policy   The rate and concurrency settings.
+     */
+    public RateLimitingHttpTransport(final HttpTransport delegate,
+                                     final RateLimitPolicy policy) {
+
+        this.delegate = delegate;
+        this.policy = policy;
+
+        for (EndpointFamily family : EndpointFamily.values()) {
+            limiters.put(family, new FamilyLimiter(family));
+        }
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+
+        FamilyLimiter limiter = limiters.get(EndpointFamily.of(
+                request.getMethod(), request.getUrl()));
+
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        HttpResponse response;
+
+        try {
+            response = delegate.execute(request);
+        } catch (IOException | RuntimeException ex) {
+            limiter.release();
+            throw ex;
+        }
+
+        limiter.onResponse(start, response.getStatusCode());
+
+        // The slot is held until the body has been consumed.
+        return new HttpResponse(response.getStatusCode(),
+                response.getHeaders(), response.getBody(), () -> {
+            try {
+                response.close();
+            } catch (IOException ex) {
+                // The body was already closed by the wrapping response.
+            } finally {
+                limiter.release();
+            }
+        });
+    }
+
+    /**
+     * @return The current limits and queue depth of every endpoint family.
+     */
+    public Map<EndpointFamily, RateLimiterStats> getStats() {
+
+        Map<EndpointFamily, RateLimiterStats> stats =
+                new EnumMap<>(EndpointFamily.class);
+
+        limiters.forEach((family, limiter) -> stats.put(family,
+                limiter.getStats()));
+
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Token bucket and adaptive concurrency limit of a single family.
+     */
+    private final class FamilyLimiter {
+
+        private final EndpointFamily family;
+        private final double requestsPerSecond;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotAvailable = lock.newCondition();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        // Guarded by lock
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+        private double limit = policy.getInitialConcurrency();
+        private int inFlight;
+        private long minLatencyNanos = Long.MAX_VALUE;
+        private long lastDecreaseNanos = System.nanoTime();
+
+        private FamilyLimiter(final EndpointFamily family) {
+            this.family = family;
+            this.requestsPerSecond = policy.getRequestsPerSecond(family);
+            this.tokens = policy.getBurstSize();
+        }
+
+        private void acquire() throws IOException {
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                    policy.getAcquireTimeoutMillis());
+
+            queued.incrementAndGet();
+
+            try {
+                long waitNanos = reserveToken(deadline);
+                try {
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    acquireSlot(deadline);
+                } catch (IOException | InterruptedException ex) {
+                    // The request is not sent, its token is given back.
+                    refundToken();
+                    throw ex;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting "
+                        + "for the rate limit of " + family);
+            } finally {
+                queued.decrementAndGet();
+            }
+
+            requests.increment();
+        }
+
+        /**
+         * Takes a token, going into debt when the bucket is empty so the
+         * waiting requests are served in order.
+         *
+         * @return The time to wait until the token is available.
+         */
+        private long reserveToken(final long deadline) throws IOException {
+
+            lock.lock();
+
+            try {
+                long now = refill();
+                tokens--;
+
+                long waitNanos = tokens >= 0
+                        ? 0 : (long) (-tokens / requestsPerSecond * 1e9);
+
+                if (now + waitNanos - deadline > 0) {
+                    tokens++;
+                    throw new IOException("Timed out waiting for the request "
+                            + "rate limit of " + family);
+                }
+
+                return waitNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refundToken() {
+
+            lock.lock();
+
+            try {
+                refill();
+                tokens = Math.min(policy.getBurstSize(), tokens + 1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Called with lock held
+        private long refill() {
+
+            long now = System.nanoTime();
+
+            tokens = Math.min(policy.getBurstSize(), tokens
+                    + (now - lastRefillNanos) * requestsPerSecond / 1e9);
+            lastRefillNanos = now;
+
+            return now;
+        }
+
+        private void acquireSlot(final long deadline)
+                throws IOException, InterruptedException {
+
+            lock.lockInterruptibly();
+
+            try {
+                while (inFlight >= (int) limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new IOException("Timed out waiting for the "
+                                + "concurrency limit of " + family);
+                    }
+                    slotAvailable.awaitNanos(remaining);
+                }
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+
+            lock.lock();
+
+            try {
+                inFlight--;
+                slotAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onResponse(final long startNanos, final int statusCode) {
+
+            long now = System.nanoTime();
+            long latency = now - startNanos;
+
+            lock.lock();
+
+            try {
+                if (statusCode == TOO_MANY_REQUESTS
+                        || statusCode == SERVICE_UNAVAILABLE) {
+                    throttled.increment();
+                    // Requests sent before the last cut saw the old limit.
+                    if (startNanos - lastDecreaseNanos > 0) {
+                        limit = Math.max(policy.getMinConcurrency(),
+                                limit * policy.getBackoffRatio());
+                        lastDecreaseNanos = now;
+                    }
+                    return;
+                }
+
+                // Let the baseline drift up slowly if the API gets slower.
+                minLatencyNanos = minLatencyNanos == Long.MAX_VALUE
+                        ? latency
+                        : Math.min(latency, minLatencyNanos
+                        + (latency - minLatencyNanos) / 100);
+
+                // Only grow a limit that is being used.
+                if (latency <= minLatencyNanos * policy.getLatencyTolerance()
+                        && inFlight * 2 >= (int) limit) {
+                    limit = Math.min(policy.getMaxConcurrency(),
+                            limit + 1 / limit);
+                    slotAvailable.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private RateLimiterStats getStats() {
+
+            lock.lock();
+
+            try {
+                return RateLimiterStats.builder()
+                        .family(family)
+                        .requestsPerSecond(requestsPerSecond)
+                        .concurrencyLimit((int) limit)
+                        .inFlightRequests(inFlight)
+                        .queuedRequests(queued.get())
+                        .requests(requests.sum())
+                        .throttledResponses(throttled.sum())
+                        .build();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.helpers.HttpUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the body of an HTTP request.
+ */
+public interface RequestBody {
+
+    /**
+     * @return The value of the Content-Type header of the request.
+     */
+    String getContentType();
+
+    /**
+     * @return The length of the body in bytes, -1 if it is not known before
+     * writing it.
+     */
+    long getContentLength();
+
+    /**
+     * @param outputStream The stream of the request the body is written to.
+     * @throws IOException If the body cannot be written.
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    /**
+     * Writes a body directly to the request stream.
+     */
+    @FunctionalInterface
+    interface StreamWriter {
+
+        /**
+         * @param outputStream The stream of the request.
+         * @throws IOException If the body cannot be written.
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * @param contentType The value of the Content-Type header.
+     * @param writer      Writes the body, it can be called again if the request
+     *                    is retried.
+     * @return A request body of unknown length, sent with chunked transfer
+     * encoding while it is being written.
+     */
+    static RequestBody stream(final String contentType,
+                              final StreamWriter writer) {
+
+        return new RequestBody() {
+
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(final OutputStream outputStream)
+                    throws IOException {
+                writer.writeTo(outputStream);
+            }
+        };
+    }
+
+    /**
+     * @param json The JSON to be sent as the request body.
+     * @return A request body holding the UTF-8 bytes of the JSON.
+     */
+    static RequestBody json(final String json) {
+
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        return new RequestBody() {
+
+            @Override
+            public String getContentType() {
+                return HttpUtils.JSON_CONTENT_TYPE;
+            }
+
+            @Override
+            public long getContentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public void writeTo(final OutputStream outputStream)
+                    throws IOException {
+                outputStream.write(bytes, 0, bytes.length);
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the {@link RetryingHttpTransport}.
+ */
+@Getter
+@Builder
+public class RetryPolicy {
+    /**
+     * Maximum number of times a request is retried after the first attempt.
+     */
+    @Builder.Default
+    private final int maxRetries = 3;
+    /**
+     * Upper bound in milliseconds of the backoff before the first retry, it
+     * doubles on every retry.
+     */
+    @Builder.Default
+    private final long baseDelayMillis = 100;
+    /**
+     * Maximum backoff in milliseconds before a single retry. A Retry-After
+     * header asking for a longer wait stops retrying.
+     */
+    @Builder.Default
+    private final long maxDelayMillis = 10_000;
+    /**
+     * Maximum time in milliseconds a single call can spend waiting between
+     * retries. A retry that would exceed it is not attempted.
+     */
+    @Builder.Default
+    private final long retryBudgetMillis = 30_000;
+    /**
+     * Whether the requests other than GET are retried like them. The server
+     * may have processed a failed POST already, retrying it can submit the
+     * same feed twice, so by default they are only retried on a 429 response
+     * or when the connection could not be established.
+     */
+    @Builder.Default
+    private final boolean retryNonIdempotent = false;
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.transport;
+
+import com.amazon.hub.counter.entities.ErrorResponse;
+import com.amazon.hub.counter.helpers.HttpHeaders;
+import com.amazon.hub.counter.helpers.HttpMethod;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transport that retries the requests failing with a transient error on top of
+ * another transport.
+ * Throttled responses (429) and connection failures are retried for every
+ * request. A GET request is also retried on a 5xx response, an error body
+ * flagged as retryable by the API or any other I/O error. Other requests are
+ * not, as the server may have processed them already, unless
+ * {@link RetryPolicy#isRetryNonIdempotent()} is set. Requests rejected by an
+ * open circuit are not retried.
+ * The backoff between retries is picked at random up to an exponentially
+ * growing bound (full jitter), so clients throttled at the same time do not
+ * retry at the same time. A Retry-After header sent by the server is honored.
+ */
+public class RetryingHttpTransport implements HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(
+            RetryingHttpTransport.class.getName());
+
+    private static final int MAX_ERROR_BODY_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final HttpTransport delegate;
+    private final RetryPolicy policy;
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     */
+    public RetryingHttpTransport(final HttpTransport delegate) {
+        this(delegate, RetryPolicy.builder().build());
+    }
+
+    /**
+     * @param delegate The transport the requests are sent through.
+     * @param policy   The retry settings.
+     */
+    public RetryingHttpTransport(final HttpTransport delegate,
+                                 final RetryPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+
+        long backoffMillis = 0;
+
+        for (int attempt = 0; ; attempt++) {
+            boolean lastAttempt = attempt >= policy.getMaxRetries();
+            HttpResponse response;
+
+            try {
+                response = delegate.execute(request);
+            } catch (IOException ex) {
+                long delay = lastAttempt || !isRetryable(request, ex)
+                        ? -1 : backoff(attempt, -1, backoffMillis);
+                if (delay < 0) {
+                    throw ex;
+                }
+                logger.warn("HTTP {} {} failed: [{}], retrying in {} ms",
+                        request.getMethod(), request.getUrl(), ex.toString(),
+                        delay);
+                backoffMillis += delay;
+                sleep(delay);
+                continue;
+            }
+
+            if (response.isSuccessful()) {
+                return response;
+            }
+
+            // The body is needed to decide, and the caller still gets it.
+            byte[] body = readErrorBody(response);
+            ErrorResponse error = ErrorResponse.fromJson(
+                    new String(body, StandardCharsets.UTF_8));
+
+            long delay = lastAttempt || !isRetryable(request,
+                    response.getStatusCode(), error)
+                    ? -1
+                    : backoff(attempt, retryAfterMillis(response),
+                    backoffMillis);
+            if (delay < 0) {
+                return new HttpResponse(response.getStatusCode(),
+                        response.getHeaders(), new ByteArrayInputStream(body),
+                        null);
+            }
+            logger.warn("HTTP {} {} returned [{}], retrying in {} ms",
+                    request.getMethod(), request.getUrl(),
+                    response.getStatusCode(), delay);
+            backoffMillis += delay;
+            sleep(delay);
+        }
+    }
+
+    /**
+     * @return The number of retries sent by this transport.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @param attempt      The attempt that failed, starting at 0.
+     * @param retryAfter   The wait asked by the server in milliseconds, -1 if
+     *                     it did not ask for one.
+     * @param spentBackoff The time already spent in backoff by the call.
+     * @return The wait before the next attempt, -1 if it must not be retried.
+     */
+    private long backoff(final int attempt, final long retryAfter,
+                         final long spentBackoff) {
+
+        long delay;
+
+        if (retryAfter >= 0) {
+            if (retryAfter > policy.getMaxDelayMillis()) {
+                return -1;
+            }
+            delay = retryAfter;
+        } else {
+            long bound = policy.getBaseDelayMillis() << Math.min(attempt, 30);
+            bound = Math.min(Math.max(bound, 0), policy.getMaxDelayMillis());
+            delay = ThreadLocalRandom.current().nextLong(bound + 1);
+        }
+
+        return spentBackoff + delay > policy.getRetryBudgetMillis()
+                ? -1 : delay;
+    }
+
+    private void sleep(final long millis) throws IOException {
+
+        retries.increment();
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to "
+                    + "retry the request.");
+        }
+    }
+
+    private boolean isRetryable(final HttpRequest request,
+                                final int statusCode,
+                                final ErrorResponse error) {
+
+        if (statusCode == 429) {
+            return true;
+        }
+
+        return isRepeatable(request)
+                && HttpStatusException.isRetryable(statusCode, error);
+    }
+
+    private boolean isRetryable(final HttpRequest request,
+                                final IOException ex) {
+
+        if (ex instanceof CircuitBreakerOpenException) {
+            return false;
+        }
+
+        if (ex instanceof ConnectException) {
+            return true;
+        }
+
+        return isRepeatable(request)
+                && !(ex instanceof ResponseTooLargeException)
+                && (!(ex instanceof InterruptedIOException)
+                || ex instanceof SocketTimeoutException);
+    }
+
+    /**
+     * @return True if sending the request again cannot duplicate its effect,
+     * or the policy allows it anyway.
+     */
+    private boolean isRepeatable(final HttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod())
+                || policy.isRetryNonIdempotent();
+    }
+
+    /**
+     * @param response A failed response.
+     * @return The Retry-After header in milliseconds, -1 if it is absent or
+     * cannot be parsed.
+     */
+    private static long retryAfterMillis(final HttpResponse response) {
+
+        String retryAfter = response.getHeader(HttpHeaders.RETRY_AFTER);
+
+        if (retryAfter == null) {
+            return -1;
+        }
+
+        try {
+            return Math.max(Long.parseLong(retryAfter.trim()), 0) * 1000;
+        } catch (NumberFormatException ex) {
+            // Not delay-seconds, it can be an HTTP-date.
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(),
+                    DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(Duration.between(ZonedDateTime.now(), date)
+                    .toMillis(), 0);
+        } catch (DateTimeParseException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param response A failed response, it is closed.
+     * @return The first bytes of the response body.
+     */
+    private static byte[] readErrorBody(final HttpResponse response)
+            throws IOException {
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        try (HttpResponse closed = response) {
+            InputStream inputStream = closed.getBody();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while (body.size() < MAX_ERROR_BODY_BYTES
+                    && (read = inputStream.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+
+        return body.toByteArray();
+    }
+}
@@ -19,6 +19,7 @@
 package com.amazon.hub.counter;
 
 import com.amazon.hub.counter.entities.*;
+import com.amazon.hub.counter.json.JsonCodecs;
 import com.amazon.hub.counter.login.ClientCredentials;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
@@ -30,10 +31,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.github.tomakehurst.wiremock.http.Fault;
 import org.junit.jupiter.api.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AmazonHubCounterFeedAPITest {
 
@@ -503,6 +514,83 @@ public class AmazonHubCounterFeedAPITest {
 
     }
 
+    @Test
+    @DisplayName("Successful streamInputDocument({feedId}, {documentId})")
+    public void streamInputDocumentOkTest() {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        String documentId = "amzn1.tortuga.3.17498d12-1bcc-4aab-93cc-kf862mc1xepr.YETMV256LUIMLY";
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId + "/documents/" + documentId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getInputDocument-ok" +
+                                        "-response.json")));
+
+        AccessPointsFeedRequest req = this.api.getInputDocument(feedId, documentId, "accessToken");
+        List<AccessPoint> streamed;
+        try (Stream<AccessPoint> accessPoints = this.api.streamInputDocument(feedId, documentId, "accessToken")) {
+            streamed = accessPoints.collect(Collectors.toList());
+        }
+
+        assertEquals(1, streamed.size());
+        assertEquals(JsonCodecs.getDefault().toJson(req.getAccessPoints()[0]),
+                JsonCodecs.getDefault().toJson(streamed.get(0)));
+    }
+
+    @Test
+    @DisplayName("streamInputDocument() decodes large documents one access point at a time")
+    public void streamInputDocumentLargeTest() {
+
+        int count = 5000;
+        StringBuilder body = new StringBuilder("{\"accessPoints\":[");
+        for (int i = 0; i < count; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"accessPointId\":\"AP-").append(i)
+                    .append("\",\"accessPointName\":\"Store ").append(i)
+                    .append("\",\"isActive\":true}");
+        }
+        body.append("],\"nextToken\":null}");
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/feedId/documents/documentId"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody(body.toString())));
+
+        try (Stream<AccessPoint> accessPoints = this.api.streamInputDocument("feedId", "documentId", "accessToken")) {
+            Iterator<AccessPoint> iterator = accessPoints.iterator();
+            for (int i = 0; i < count; i++) {
+                assertEquals("AP-" + i, iterator.next().getAccessPointId());
+            }
+            assertFalse(iterator.hasNext());
+        }
+
+        // Closing the stream before its end releases the response.
+        try (Stream<AccessPoint> accessPoints = this.api.streamInputDocument("feedId", "documentId", "accessToken")) {
+            assertEquals("AP-0", accessPoints.findFirst().get().getAccessPointId());
+        }
+    }
+
+    @Test
+    @DisplayName("Error in streamInputDocument({feedId}, {documentId})")
+    public void streamInputDocumentErrorTest() {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/feedId/documents/documentId"))
+                        .willReturn(aResponse()
+                                .withStatus(404)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getInputDocument-error" +
+                                        "-response.json")));
+
+        assertThrows(RuntimeException.class, () -> {
+            this.api.streamInputDocument("feedId", "documentId", "accessToken");
+        });
+    }
+
     @Test
     @DisplayName("Successful Feed JSON serialization")
     public void postFeedSerializationTest() throws IOException {
@@ -721,6 +809,99 @@ public class AmazonHubCounterFeedAPITest {
 
     }
 
+    @Test
+    @DisplayName("Successful streamed postFeed() with non-ASCII names")
+    public void postFeedStreamingTest() throws IOException {
+
+        // Create Address
+        Address address = Address.builder()
+                .addressFieldOne("Calle de Alcalá 1, 28014 Madrid")
+                .city("Madrid")
+                .postalCode("28014")
+                .countryCode("ES")
+                .latitude("40.418653")
+                .longitude("-3.699248")
+                .build();
+
+        // Create Standard Hours
+        StandardHours[] standardHours = new StandardHours[1];
+        standardHours[0] = StandardHours.builder()
+                .day("MONDAY")
+                .openingTime("08:30:00")
+                .closingTime("20:00:00")
+                .build();
+
+        AccessPoint[] accessPoints = new AccessPoint[1];
+        accessPoints[0] = AccessPoint.builder()
+                .accessPointId("AMAZON-ES-MADRID")
+                .accessPointName("Amazon Hub Counter - Librería Ñandú")
+                .isActive(true)
+                .timeZone("Europe/Madrid")
+                .address(address)
+                .capabilities(new String[]{"PICK_UP"})
+                .standardHoursList(standardHours)
+                .build();
+
+        AccessPointsFeedRequest accessPointsFeedRequest = AccessPointsFeedRequest.builder()
+                .accessPoints(accessPoints)
+                .build();
+
+        // The streamed JSON is the same as the one built in memory
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        accessPointsFeedRequest.writeJson(outputStream);
+        assertEquals(accessPointsFeedRequest.toJson(),
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        // Create WireMock stub
+        stubFor(
+                WireMock.post(urlEqualTo("/v1/feeds?feedType=STORE_FEED"))
+                        .willReturn(aResponse()
+                                .withStatus(201)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/postFeed-ok-response.json")));
+
+        String feedId = this.api.postFeed(accessPointsFeedRequest, FeedType.STORE_FEED, "accessToken");
+
+        assertEquals("9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq", feedId);
+        verify(postRequestedFor(urlEqualTo("/v1/feeds?feedType=STORE_FEED"))
+                .withHeader("Transfer-Encoding", equalTo("chunked"))
+                .withRequestBody(equalTo(accessPointsFeedRequest.toJson())));
+    }
+
+    @Test
+    @DisplayName("Concurrent identical getFeedById() share one request")
+    public void getFeedByIdCoalescingTest() throws Exception {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+
+        // Create WireMock stub
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withFixedDelay(500)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Feed>> feeds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                feeds.add(executor.submit(() -> this.api.getFeedById(feedId, "accessToken")));
+            }
+
+            Feed first = feeds.get(0).get();
+            for (Future<Feed> feed : feeds) {
+                assertSame(first, feed.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(1, getRequestedFor(urlEqualTo("/v1/feeds/" + feedId)));
+        assertEquals(3, this.api.getCoalescedReads());
+    }
+
     @Test
     @DisplayName("Error in postFeed()")
     public void postFeedErrorTest() {
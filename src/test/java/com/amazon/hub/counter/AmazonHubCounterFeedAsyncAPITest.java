@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpTransport;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.amazon.hub.counter.FeedPageStubs.stubPage;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AmazonHubCounterFeedAsyncAPITest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final String FEED_ID = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+    WireMockServer wireMockServer;
+
+    ClientCredentials clientCredentials = ClientCredentials.builder()
+            .clientId("client_id")
+            .clientSecret("client_secret")
+            .build();
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Successful async getFeedById({feedId})")
+    public void getFeedByIdTest() throws Exception {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 2)) {
+
+            Feed feed = asyncApi.getFeedById(FEED_ID, "accessToken").get();
+
+            assertEquals(FEED_ID, feed.getFeedId());
+        }
+    }
+
+    @Test
+    @DisplayName("Error in async getFeedById({feedId})")
+    public void getFeedByIdErrorTest() {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                        .willReturn(aResponse()
+                                .withStatus(403)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-error-response.json")));
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 2)) {
+
+            CompletableFuture<Feed> future = asyncApi.getFeedById(FEED_ID,
+                    "accessToken");
+
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    future::get);
+            assertTrue(ex.getCause() instanceof RuntimeException);
+        }
+    }
+
+    @Test
+    @DisplayName("Requests in flight are bounded by maxConcurrency")
+    public void maxConcurrencyTest() throws Exception {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withFixedDelay(100)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        PooledHttpTransport pooledTransport = new PooledHttpTransport();
+        HttpTransport countingTransport = request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread());
+            try {
+                return pooledTransport.execute(request);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                             countingTransport), 2)) {
+
+            List<CompletableFuture<Feed>> futures = new ArrayList<>();
+            // Distinct tokens, so the reads are not coalesced
+            for (int i = 0; i < 8; i++) {
+                futures.add(asyncApi.getFeedById(FEED_ID, "accessToken" + i));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get();
+
+            assertEquals(2, maxInFlight.get());
+            assertEquals(0, asyncApi.getQueuedRequests());
+            // A queued request runs on the thread of the request it waited for
+            assertEquals(2, threads.size());
+        }
+    }
+
+    @Test
+    @DisplayName("streamFeeds() follows nextOffset through every page")
+    public void streamFeedsTest() {
+
+        stubPage(null, "history-page-1.json");
+        stubPage("offset-1", "history-page-2.json");
+        stubPage("offset-2", "history-page-3.json");
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 2);
+             Stream<Feed> feeds = asyncApi.streamFeeds(2, 2, "accessToken")) {
+
+            assertEquals(Arrays.asList("feed-120", "feed-119", "feed-118", "feed-117",
+                    "feed-116", "feed-115"),
+                    feeds.map(Feed::getFeedId).collect(Collectors.toList()));
+        }
+
+        verify(3, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+    }
+
+    @Test
+    @DisplayName("streamFeeds() requests the next page while the current one is processed")
+    public void streamFeedsPrefetchTest() throws Exception {
+
+        stubPage(null, "history-page-1.json");
+        stubPage("offset-1", "history-page-2.json");
+        stubPage("offset-2", "history-page-3.json");
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 2);
+             Stream<Feed> feeds = asyncApi.streamFeeds(1, 1, "accessToken")) {
+
+            Iterator<Feed> iterator = feeds.iterator();
+            assertEquals("feed-120", iterator.next().getFeedId());
+
+            // The second page is fetched in the background, not the third.
+            long deadline = System.currentTimeMillis() + 5000;
+            while (findAll(getRequestedFor(urlPathEqualTo("/v1/feeds"))).size() < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            verify(2, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+
+            for (int sequenceNumber = 119; sequenceNumber >= 115; sequenceNumber--) {
+                assertEquals("feed-" + sequenceNumber, iterator.next().getFeedId());
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("streamFeeds() throws the error of a failed page")
+    public void streamFeedsErrorTest() {
+
+        stubPage(null, "history-page-1.json");
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds?pageSize=1&nextOffset=offset-1"))
+                        .willReturn(aResponse()
+                                .withStatus(403)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeeds-error-response.json")));
+
+        try (AmazonHubCounterFeedAsyncAPI asyncApi =
+                     new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                             clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 2);
+             Stream<Feed> feeds = asyncApi.streamFeeds(1, 2, "accessToken")) {
+
+            Iterator<Feed> iterator = feeds.iterator();
+            assertEquals("feed-120", iterator.next().getFeedId());
+            assertEquals("feed-119", iterator.next().getFeedId());
+            assertThrows(RuntimeException.class, iterator::hasNext);
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+                new AmazonHubCounterFeedAsyncAPI(null, 1).streamFeeds(1, 0, "accessToken"));
+    }
+}
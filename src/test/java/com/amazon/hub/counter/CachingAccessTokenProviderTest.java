@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.login.AccessToken;
+import com.amazon.hub.counter.login.CachingAccessTokenProvider;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAccessTokenProviderTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Concurrent callers share one login and the token is cached")
+    public void sharedLoginTest() throws Exception {
+
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withFixedDelay(300)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("auth/login-ok-response.json")));
+
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                ClientCredentials.builder()
+                        .clientId("client_id")
+                        .clientSecret("client_secret")
+                        .build(),
+                MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (CachingAccessTokenProvider provider =
+                     new CachingAccessTokenProvider(api)) {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tokens.add(executor.submit(provider::getAccessToken));
+            }
+            for (Future<String> token : tokens) {
+                assertTrue(token.get().startsWith("Atc|"));
+            }
+
+            assertEquals(tokens.get(0).get(), provider.getAccessToken());
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/auth/o2/token")));
+    }
+
+    @Test
+    @DisplayName("Token is refreshed in the background before it expires")
+    public void backgroundRefreshTest() throws InterruptedException {
+
+        AtomicInteger logins = new AtomicInteger();
+
+        try (CachingAccessTokenProvider provider =
+                     new CachingAccessTokenProvider(() -> AccessToken.builder()
+                             .token("token-" + logins.incrementAndGet())
+                             .expiresAtMillis(System.currentTimeMillis() + 1000)
+                             .build(), 400)) {
+
+            assertEquals("token-1", provider.getAccessToken());
+
+            // Refreshed 600 ms after the login, before the caller needs it
+            Thread.sleep(800);
+
+            assertEquals(2, logins.get());
+            assertEquals("token-2", provider.getAccessToken());
+            assertEquals(2, logins.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Token living less than the expiry margin is still cached")
+    public void shortLivedTokenTest() {
+
+        AtomicInteger logins = new AtomicInteger();
+
+        try (CachingAccessTokenProvider provider =
+                     new CachingAccessTokenProvider(() -> AccessToken.builder()
+                             .token("token-" + logins.incrementAndGet())
+                             .expiresAtMillis(System.currentTimeMillis() + 10_000)
+                             .build(),
+                             CachingAccessTokenProvider.DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS)) {
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals("token-1", provider.getAccessToken());
+            }
+            assertEquals(1, logins.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Rejected accessToken is renewed and the request replayed")
+    public void unauthorizedReplayTest() {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .inScenario("rollover")
+                        .whenScenarioStateIs(Scenario.STARTED)
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody("{\"access_token\":\"expired\",\"expires_in\":3600}"))
+                        .willSetStateTo("renewed"));
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .inScenario("rollover")
+                        .whenScenarioStateIs("renewed")
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("auth/login-ok-response.json")));
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .withHeader("Authorization", equalTo("Bearer expired"))
+                        .willReturn(aResponse()
+                                .withStatus(401)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-error-response.json")));
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .withHeader("Authorization", matching("Bearer Atc\\|.*"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                ClientCredentials.builder()
+                        .clientId("client_id")
+                        .clientSecret("client_secret")
+                        .build(),
+                MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT);
+
+        assertEquals(feedId, api.getFeedById(feedId).getFeedId());
+        assertEquals(feedId, api.getFeedById(feedId).getFeedId());
+
+        // One login for the rejected token, one for its replacement
+        verify(2, postRequestedFor(urlEqualTo("/auth/o2/token")));
+        verify(3, getRequestedFor(urlEqualTo("/v1/feeds/" + feedId)));
+    }
+
+    @Test
+    @DisplayName("Closing the API stops the refresh of the accessToken it created")
+    public void closeTest() throws InterruptedException {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody("{\"access_token\":\"Atc|short\",\"expires_in\":2}")));
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        try (AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                ClientCredentials.builder()
+                        .clientId("client_id")
+                        .clientSecret("client_secret")
+                        .build(),
+                MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT)) {
+
+            assertEquals(feedId, api.getFeedById(feedId).getFeedId());
+        }
+
+        // The refresh was due 1 s after the login
+        Thread.sleep(1500);
+
+        verify(1, postRequestedFor(urlEqualTo("/auth/o2/token")));
+    }
+}
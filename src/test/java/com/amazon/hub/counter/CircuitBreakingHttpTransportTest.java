@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.CircuitBreakerOpenException;
+import com.amazon.hub.counter.transport.CircuitBreakerPolicy;
+import com.amazon.hub.counter.transport.CircuitBreakingHttpTransport;
+import com.amazon.hub.counter.transport.CircuitState;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakingHttpTransportTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final String FEED_ID = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+    private static final String FEED_BY_ID_CIRCUIT = "http://localhost:" + PORT + " FEED_BY_ID";
+    WireMockServer wireMockServer;
+    ClientCredentials clientCredentials;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        clientCredentials = ClientCredentials.builder()
+                .clientId("client_id")
+                .clientSecret("client_secret")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Circuit opens on failure rate and fails fast")
+    public void failureRateOpensCircuitTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(500)));
+
+        CircuitBreakingHttpTransport transport =
+                new CircuitBreakingHttpTransport(new PooledHttpTransport(),
+                        CircuitBreakerPolicy.builder()
+                                .slidingWindowSize(4)
+                                .minimumCalls(4)
+                                .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> {
+                api.getFeedById(FEED_ID, "accessToken");
+            });
+        }
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getFeedById(FEED_ID, "accessToken");
+        });
+        assertTrue(ex.getCause() instanceof CircuitBreakerOpenException);
+
+        // The rejected call was not sent
+        verify(4, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+        assertEquals(CircuitState.OPEN, transport.getStats()
+                .get(FEED_BY_ID_CIRCUIT).getState());
+        assertEquals(1, transport.getStats().get(FEED_BY_ID_CIRCUIT)
+                .getRejectedCalls());
+    }
+
+    @Test
+    @DisplayName("Circuit closes after successful half open calls")
+    public void halfOpenClosesCircuitTest() throws InterruptedException {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(503)));
+
+        CircuitBreakingHttpTransport transport =
+                new CircuitBreakingHttpTransport(new PooledHttpTransport(),
+                        CircuitBreakerPolicy.builder()
+                                .slidingWindowSize(2)
+                                .minimumCalls(2)
+                                .openDurationMillis(100)
+                                .halfOpenCalls(1)
+                                .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> {
+                api.getFeedById(FEED_ID, "accessToken");
+            });
+        }
+        assertEquals(CircuitState.OPEN, transport.getStats()
+                .get(FEED_BY_ID_CIRCUIT).getState());
+
+        // The endpoint recovers while the circuit is open
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-ok-response.json")));
+        Thread.sleep(150);
+
+        Feed feed = api.getFeedById(FEED_ID, "accessToken");
+
+        assertEquals(FEED_ID, feed.getFeedId());
+        assertEquals(CircuitState.CLOSED, transport.getStats()
+                .get(FEED_BY_ID_CIRCUIT).getState());
+    }
+
+    @Test
+    @DisplayName("Circuit opens on slow call rate")
+    public void slowCallRateOpensCircuitTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(200)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        CircuitBreakingHttpTransport transport =
+                new CircuitBreakingHttpTransport(new PooledHttpTransport(),
+                        CircuitBreakerPolicy.builder()
+                                .slidingWindowSize(2)
+                                .minimumCalls(2)
+                                .slowCallDurationMillis(100)
+                                .slowCallRateThreshold(1)
+                                .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        api.getFeedById(FEED_ID, "accessToken");
+        api.getFeedById(FEED_ID, "accessToken");
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getFeedById(FEED_ID, "accessToken");
+        });
+        assertTrue(ex.getCause() instanceof CircuitBreakerOpenException);
+        verify(2, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+    }
+}
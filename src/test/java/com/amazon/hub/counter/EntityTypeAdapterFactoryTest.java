@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.Capacity;
+import com.amazon.hub.counter.entities.CommunicationDetails;
+import com.amazon.hub.counter.entities.ErrorResponse;
+import com.amazon.hub.counter.entities.ExceptionalClosure;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.entities.MidDayClosure;
+import com.amazon.hub.counter.entities.OutputDocument;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.helpers.EntityTypeAdapterFactory;
+import com.amazon.hub.counter.login.LoginRequest;
+import com.amazon.hub.counter.login.LoginResponse;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityTypeAdapterFactoryTest {
+
+    private static final String FIXTURES = "src/test/resources/__files/";
+    private static final Gson REFLECTIVE = new Gson();
+    private static final Gson GENERATED = new GsonBuilder()
+            .registerTypeAdapterFactory(new EntityTypeAdapterFactory())
+            .create();
+
+    @Test
+    @DisplayName("The adapters encode the entities as the reflective Gson")
+    public void encodingTest() throws IOException {
+
+        AccessPoint accessPoint = AccessPoint.builder()
+                .accessPointId("AMAZON-ES-MADRID")
+                .accessPointName("Amazon Hub Counter <Madrid> & \"Sol\"")
+                .isActive(true)
+                .isRestrictedAccess(false)
+                .timeZone("Europe/Madrid")
+                .address(Address.builder()
+                        .addressFieldOne("Calle de Alcalá 1")
+                        .addressFieldTwo("Planta 2ª")
+                        .city("Madrid")
+                        .region("Madrid")
+                        .postalCode("28014")
+                        .countryCode("ES")
+                        .latitude("40.418653")
+                        .longitude("-3.699248")
+                        .build())
+                .capacity(Capacity.builder().threshold(25).build())
+                .terminationDate("2199-12-31")
+                .capabilities(new String[]{"PICK_UP", null, "DROP_OFF"})
+                .standardHoursList(new StandardHours[]{
+                        StandardHours.builder()
+                                .day("MONDAY")
+                                .openingTime("08:30:00")
+                                .closingTime("20:00:00")
+                                .midDayClosures(new MidDayClosure[]{
+                                        MidDayClosure.builder()
+                                                .startTime("14:00:00")
+                                                .endTime("15:00:00")
+                                                .build()
+                                })
+                                .build()
+                })
+                .exceptionalClosures(new ExceptionalClosure[]{
+                        ExceptionalClosure.builder()
+                                .startDateTime("2038-01-19")
+                                .endDateTime("2038-01-20")
+                                .build()
+                })
+                .communicationDetails(CommunicationDetails.builder()
+                        .phoneNumber("+34 910 000 000")
+                        .emailId("store-id@example.com")
+                        .build())
+                .build();
+        AccessPointsFeedRequest feed = AccessPointsFeedRequest.builder()
+                .accessPoints(new AccessPoint[]{accessPoint})
+                .build();
+        LoginRequest login = LoginRequest.builder()
+                .client_id("client_id")
+                .client_secret("client_secret")
+                .grant_type("client_credentials")
+                .scope("hub_counter::feeds")
+                .build();
+
+        String expected = REFLECTIVE.toJson(feed);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        feed.writeJson(stream);
+
+        assertEquals(expected, feed.toJson());
+        assertEquals(expected, new String(stream.toByteArray(),
+                StandardCharsets.UTF_8));
+        assertEquals(REFLECTIVE.toJson(login), login.toJson());
+    }
+
+    @Test
+    @DisplayName("The adapters decode the responses as the reflective Gson")
+    public void decodingTest() throws IOException {
+
+        assertSameDecoding("feeds/getFeeds-ok-response.json",
+                FeedsResponse.class);
+        assertSameDecoding("feeds/getFeedById-ok-response.json", Feed.class);
+        assertSameDecoding("feeds/getOutputDocument-with-errors-response.json",
+                OutputDocument.class);
+        assertSameDecoding("feeds/getInputDocument-ok-response.json",
+                AccessPointsFeedRequest.class);
+        assertSameDecoding("auth/login-ok-response.json",
+                LoginResponse.class);
+    }
+
+    @Test
+    @DisplayName("Scalars are decoded as leniently as with the reflective Gson")
+    public void lenientDecodingTest() {
+
+        String json = "{\"feedId\":12,\"sequenceNumber\":\"3\","
+                + "\"createDate\":null,\"unknown\":{\"a\":[1,2]},"
+                + "\"inputDocuments\":[null,{\"documentId\":true}]}";
+        Feed feed = GENERATED.fromJson(json, Feed.class);
+
+        assertEquals("12", feed.getFeedId());
+        assertEquals(3, feed.getSequenceNumber());
+        assertNull(feed.getCreateDate());
+        assertNull(feed.getInputDocuments()[0]);
+        assertEquals("true", feed.getInputDocuments()[1].getDocumentId());
+        assertEquals(REFLECTIVE.toJson(REFLECTIVE.fromJson(json, Feed.class)),
+                REFLECTIVE.toJson(feed));
+
+        ErrorResponse error = ErrorResponse.fromJson(
+                "{\"message\":\"Throttled\",\"retryable\":\"true\"}");
+        assertTrue(error.getRetryable());
+        assertNull(ErrorResponse.fromJson("Throttled"));
+    }
+
+    @Test
+    @DisplayName("Objects without a required field are decoded as the reflective Gson")
+    public void missingRequiredFieldTest() {
+
+        String json = "{\"accessPoints\":[{\"accessPointId\":\"AP-1\","
+                + "\"isActive\":\"true\",\"unknown\":[1],"
+                + "\"address\":{\"city\":\"Madrid\",\"countryCode\":\"ES\"},"
+                + "\"capabilities\":[\"PICK_UP\"],\"standardHours\":[{"
+                + "\"day\":\"MONDAY\",\"openingTime\":\"08:00\","
+                + "\"closingTime\":\"20:00\",\"midDayClosures\":[{"
+                + "\"startTime\":\"13:00\"}]}]},{\"accessPointId\":\"AP-2\"}]}";
+        AccessPointsFeedRequest request = GENERATED.fromJson(json,
+                AccessPointsFeedRequest.class);
+
+        AccessPoint first = request.getAccessPoints()[0];
+        assertNull(first.getTimeZone());
+        assertNull(first.getAddress().getAddressFieldOne());
+        assertEquals("Madrid", first.getAddress().getCity());
+        assertEquals("13:00", first.getStandardHoursList()[0]
+                .getMidDayClosures()[0].getStartTime());
+        assertNull(request.getAccessPoints()[1].getAccessPointName());
+        assertEquals(REFLECTIVE.toJson(REFLECTIVE.fromJson(json,
+                AccessPointsFeedRequest.class)), REFLECTIVE.toJson(request));
+    }
+
+    private static void assertSameDecoding(final String fixture,
+                                           final Class<?> type)
+            throws IOException {
+
+        String json = new String(Files.readAllBytes(Paths.get(FIXTURES
+                + fixture)), StandardCharsets.UTF_8);
+
+        assertEquals(REFLECTIVE.toJson(REFLECTIVE.fromJson(json, type)),
+                REFLECTIVE.toJson(GENERATED.fromJson(json, type)),
+                fixture);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.amazon.hub.counter.FeedPageStubs.stubPage;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedCompletionWatcherTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final long START_MILLIS = 1_560_000_000_000L;
+    WireMockServer wireMockServer;
+
+    ClientCredentials clientCredentials = ClientCredentials.builder()
+            .clientId("client_id")
+            .clientSecret("client_secret")
+            .build();
+
+    private AmazonHubCounterFeedAsyncAPI asyncApi;
+
+    // The polls are sent by the ticks of the tests only.
+    private final AtomicLong clock = new AtomicLong(START_MILLIS);
+
+    @BeforeEach
+    public void startWireMock() {
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("auth/login-ok-response.json")));
+
+        asyncApi = new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncApi.close();
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("A feed is polled until it is processed")
+    public void completedTest() throws Exception {
+
+        stubFeed("feed-1", 1, "Processing");
+
+        try (FeedCompletionWatcher watcher = newWatcher(2)) {
+
+            CompletableFuture<Feed> future = watcher.watch("feed-1");
+
+            advance(watcher, 0);
+            assertEquals(0, watcher.getFeedRequests());
+
+            advance(watcher, 50);
+            assertFalse(future.isDone());
+            assertEquals(1, watcher.getWatchedFeeds());
+            assertEquals(1, watcher.getFeedRequests());
+
+            stubFeed("feed-1", 1, "Completed");
+            advance(watcher, 100);
+
+            assertEquals("Completed", future.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(2, watcher.getFeedRequests());
+            assertEquals(0, watcher.getWatchedFeeds());
+            // The feed took longer than expected.
+            assertTrue(watcher.getExpectedProcessingMillis() > 50);
+        }
+    }
+
+    @Test
+    @DisplayName("Feeds due together are read from the pages of feeds listing them")
+    public void listTest() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            stubFeed("feed-" + i, i, "Processing");
+        }
+
+        try (FeedCompletionWatcher watcher = newWatcher(2)) {
+
+            List<CompletableFuture<Feed>> futures = watchAll(watcher, 5);
+
+            // The first polls return the createDate locating each feed.
+            advance(watcher, 50);
+            assertEquals(5, watcher.getFeedRequests());
+            assertEquals(0, watcher.getListRequests());
+
+            stubPage(null, "watched-page-1.json");
+            stubPage("offset-1", "watched-page-2.json");
+            advance(watcher, 100);
+
+            List<String> statuses = new ArrayList<>();
+            for (CompletableFuture<Feed> future : futures) {
+                statuses.add(future.get(5, TimeUnit.SECONDS).getStatus());
+            }
+
+            assertEquals("Failed", statuses.get(2));
+            assertEquals(2, watcher.getListRequests());
+            assertEquals(5, watcher.getFeedRequests());
+        }
+    }
+
+    @Test
+    @DisplayName("The listing stops at the feeds older than the feeds due")
+    public void listOlderFeedsTest() throws Exception {
+
+        for (int i = 1; i <= 3; i++) {
+            stubFeed("feed-" + i, i, "Processing");
+        }
+
+        try (FeedCompletionWatcher watcher = newWatcher(2)) {
+
+            List<CompletableFuture<Feed>> futures = watchAll(watcher, 3);
+            advance(watcher, 50);
+
+            stubPage(null, "older-page-1.json");
+            for (int i = 1; i <= 3; i++) {
+                stubFeed("feed-" + i, i, "Completed");
+            }
+            advance(watcher, 100);
+
+            for (CompletableFuture<Feed> future : futures) {
+                assertEquals("Completed", future.get(5, TimeUnit.SECONDS).getStatus());
+            }
+            assertEquals(1, watcher.getListRequests());
+            assertEquals(6, watcher.getFeedRequests());
+            verify(0, getRequestedFor(urlPathEqualTo("/v1/feeds"))
+                    .withQueryParam("nextOffset", equalTo("offset-1")));
+        }
+    }
+
+    @Test
+    @DisplayName("The feeds beyond maxListPages are polled on their own")
+    public void maxListPagesTest() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            stubFeed("feed-" + i, i, "Processing");
+        }
+
+        try (FeedCompletionWatcher watcher = newWatcher(2, 1)) {
+
+            List<CompletableFuture<Feed>> futures = watchAll(watcher, 5);
+            advance(watcher, 50);
+
+            stubPage(null, "watched-page-1.json");
+            stubPage("offset-1", "watched-page-2.json");
+            stubFeed("feed-2", 2, "Completed");
+            stubFeed("feed-1", 1, "Completed");
+            advance(watcher, 100);
+
+            for (CompletableFuture<Feed> future : futures) {
+                assertTrue(future.get(5, TimeUnit.SECONDS).getStatus().matches("Completed|Failed"));
+            }
+            assertEquals(1, watcher.getListRequests());
+            assertEquals(7, watcher.getFeedRequests());
+            verify(0, getRequestedFor(urlPathEqualTo("/v1/feeds"))
+                    .withQueryParam("nextOffset", equalTo("offset-1")));
+        }
+    }
+
+    @Test
+    @DisplayName("A feed that cannot be polled fails")
+    public void errorTest() throws Exception {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/feed-1"))
+                        .willReturn(aResponse()
+                                .withStatus(403)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-error-response.json")));
+
+        try (FeedCompletionWatcher watcher = newWatcher(2)) {
+
+            CompletableFuture<Feed> future = watcher.watch("feed-1");
+
+            advance(watcher, 50);
+            assertFalse(future.isDone());
+
+            advance(watcher, 100);
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof RuntimeException);
+            assertEquals(2, watcher.getFeedRequests());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the watcher cancels the feeds still processing")
+    public void closeTest() {
+
+        FeedCompletionWatcher watcher = newWatcher(2);
+        CompletableFuture<Feed> future = watcher.watch("feed-1");
+        CompletableFuture<Feed> again = watcher.watch("feed-1");
+
+        watcher.close();
+
+        assertTrue(future.isCancelled());
+        assertTrue(again.isCancelled());
+        assertEquals(0, watcher.getWatchedFeeds());
+        assertThrows(ExecutionException.class, () -> watcher.watch("feed-2").get());
+    }
+
+    private FeedCompletionWatcher newWatcher(final int maxErrors) {
+        return newWatcher(maxErrors, 3);
+    }
+
+    private FeedCompletionWatcher newWatcher(final int maxErrors, final int maxListPages) {
+        return new FeedCompletionWatcher(asyncApi, FeedWatcherPolicy.builder()
+                .tickMillis(3_600_000)
+                .initialProcessingMillis(50)
+                .minDelayMillis(20)
+                .maxDelayMillis(100)
+                .listThreshold(3)
+                .maxErrors(maxErrors)
+                .maxListPages(maxListPages)
+                .build(), clock::get);
+    }
+
+    private void advance(final FeedCompletionWatcher watcher, final long millis)
+            throws Exception {
+
+        clock.addAndGet(millis);
+        watcher.tickNow().get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<CompletableFuture<Feed>> watchAll(
+            final FeedCompletionWatcher watcher, final int count) {
+
+        List<CompletableFuture<Feed>> futures = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            futures.add(watcher.watch("feed-" + i));
+        }
+        return futures;
+    }
+
+    // The feeds are submitted a second apart, feed-1 first.
+    private static String feed(final String feedId, final int second, final String status) {
+        return "{\"feedId\":\"" + feedId + "\",\"status\":\"" + status
+                + "\",\"createDate\":" + (START_MILLIS - 10_000 + second * 1_000) + "}";
+    }
+
+    private static void stubFeed(final String feedId, final int second, final String status) {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody(feed(feedId, second, status))));
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.FeedDetails;
+import com.amazon.hub.counter.entities.OutputDocument;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedFanOutTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final List<String> FEED_IDS = Arrays.asList("feed-1", "feed-2", "feed-3", "feed-4");
+    WireMockServer wireMockServer;
+
+    ClientCredentials clientCredentials = ClientCredentials.builder()
+            .clientId("client_id")
+            .clientSecret("client_secret")
+            .build();
+
+    private AmazonHubCounterFeedAsyncAPI asyncApi;
+
+    @BeforeEach
+    public void startWireMock() {
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        asyncApi = new AmazonHubCounterFeedAsyncAPI(new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT), 8);
+
+        // The first feed is the slowest to answer.
+        stubFeed("feed-1", 500);
+        stubFeed("feed-2", 0);
+        stubFeed("feed-3", 0);
+        stubFeed("feed-4", 0);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // A closed stream completes its requests in flight, they must not
+        // reach the server of the next test.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (asyncApi.getActiveRequests() + asyncApi.getQueuedRequests() > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        asyncApi.close();
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("The feeds are joined with their output documents in input order")
+    public void orderedTest() {
+
+        List<FeedDetails> details;
+        try (Stream<FeedDetails> stream = asyncApi.streamFeedDetails(
+                FEED_IDS.stream(), 4, true, "accessToken")) {
+            details = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(FEED_IDS, feedIds(details));
+        for (FeedDetails detail : details) {
+            String feedId = detail.getFeed().getFeedId();
+            assertEquals(Arrays.asList(feedId + "-a", feedId + "-b"),
+                    Arrays.stream(detail.getOutputDocuments())
+                            .map(OutputDocument::getFeedId)
+                            .collect(Collectors.toList()));
+        }
+        verify(8, getRequestedFor(urlMatching("/v1/feeds/.*/documents/.*")));
+    }
+
+    @Test
+    @DisplayName("The feeds are returned as they complete")
+    public void completionOrderTest() {
+
+        List<FeedDetails> details;
+        try (Stream<FeedDetails> stream = asyncApi.streamFeedDetails(
+                FEED_IDS.stream(), 4, false, "accessToken")) {
+            details = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(4, details.size());
+        assertEquals("feed-1", details.get(3).getFeed().getFeedId());
+        assertTrue(feedIds(details).containsAll(FEED_IDS));
+    }
+
+    @Test
+    @DisplayName("A failed feed is thrown when it is read")
+    public void errorTest() {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/feed-3"))
+                        .willReturn(aResponse()
+                                .withStatus(403)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-error-response.json")));
+
+        try (Stream<FeedDetails> stream = asyncApi.streamFeedDetails(
+                FEED_IDS.stream(), 2, true, "accessToken")) {
+            assertThrows(RuntimeException.class, () -> stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @DisplayName("At most parallelism operations are in flight")
+    public void parallelismTest() {
+
+        Map<Integer, CompletableFuture<Integer>> started = new HashMap<>();
+        FanOutIterator<Integer, Integer> results = new FanOutIterator<>(
+                Arrays.asList(1, 2, 3, 4, 5).iterator(), key -> {
+                    CompletableFuture<Integer> result = new CompletableFuture<>();
+                    started.put(key, result);
+                    return result;
+                }, 2, false);
+
+        assertTrue(results.hasNext());
+        assertEquals(2, started.size());
+
+        started.get(2).complete(20);
+        assertEquals(20, (int) results.next());
+        assertEquals(3, started.size());
+        assertEquals(2, results.getInFlight());
+
+        started.get(3).completeExceptionally(new IllegalStateException("failed"));
+        assertThrows(IllegalStateException.class, results::next);
+
+        results.close();
+        assertFalse(results.hasNext());
+        assertEquals(4, started.size());
+    }
+
+    private static List<String> feedIds(final List<FeedDetails> details) {
+        List<String> feedIds = new ArrayList<>();
+        for (FeedDetails detail : details) {
+            feedIds.add(detail.getFeed().getFeedId());
+        }
+        return feedIds;
+    }
+
+    private static void stubFeed(final String feedId, final int delayMillis) {
+
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withFixedDelay(delayMillis)
+                                .withHeader("content-type", "application/json")
+                                .withBody("{\"feedId\":\"" + feedId + "\",\"status\":\"Completed\","
+                                        + "\"outputDocuments\":["
+                                        + "{\"documentId\":\"" + feedId + "-a\",\"documentType\":\"OutputDocument\"},"
+                                        + "{\"documentId\":\"" + feedId + "-b\",\"documentType\":\"OutputDocument\"}]}")));
+
+        // The feedId of each output document echoes its documentId.
+        for (String documentId : Arrays.asList(feedId + "-a", feedId + "-b")) {
+            stubFor(
+                    WireMock.get(urlEqualTo("/v1/feeds/" + feedId + "/documents/" + documentId))
+                            .willReturn(aResponse()
+                                    .withStatus(200)
+                                    .withHeader("content-type", "application/json")
+                                    .withBody("{\"feedId\":\"" + documentId + "\","
+                                            + "\"noOfAccessPointsProcessed\":1}")));
+        }
+    }
+}
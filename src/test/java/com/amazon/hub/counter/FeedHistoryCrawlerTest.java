@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.crawl.FeedCrawlCheckpoint;
+import com.amazon.hub.counter.crawl.FeedHistoryCrawler;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.amazon.hub.counter.FeedPageStubs.stubPage;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedHistoryCrawlerTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    WireMockServer wireMockServer;
+
+    @TempDir
+    Path directory;
+
+    ClientCredentials clientCredentials = ClientCredentials.builder()
+            .clientId("client_id")
+            .clientSecret("client_secret")
+            .build();
+
+    private AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT);
+
+    @BeforeEach
+    public void startWireMock() {
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("auth/login-ok-response.json")));
+
+        stubPage(null, "history-page-1.json");
+        stubPage("offset-1", "history-page-2.json");
+        stubPage("offset-2", "history-page-3.json");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("A complete crawl is not fetched again")
+    public void crawlTest() throws IOException {
+
+        FeedHistoryCrawler crawler = new FeedHistoryCrawler(api, directory, 2);
+        FeedCrawlCheckpoint checkpoint = crawler.crawl();
+
+        assertTrue(checkpoint.isComplete());
+        assertEquals(3, checkpoint.getPages());
+        assertEquals(6, checkpoint.getFeeds());
+        assertEquals(Arrays.asList(120, 119, 118, 117, 116, 115), readFeeds(crawler));
+        verify(3, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+
+        FeedCrawlCheckpoint again = new FeedHistoryCrawler(api, directory, 2).crawl();
+
+        assertTrue(again.isComplete());
+        assertEquals(6, again.getFeeds());
+        verify(3, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+    }
+
+    @Test
+    @DisplayName("A failed crawl resumes from the page that failed")
+    public void resumeTest() throws IOException {
+
+        stubFor(
+                WireMock.get(urlPathEqualTo("/v1/feeds"))
+                        .withQueryParam("nextOffset", equalTo("offset-2"))
+                        .willReturn(aResponse()
+                                .withStatus(400)));
+
+        FeedHistoryCrawler crawler = new FeedHistoryCrawler(api, directory, 2);
+
+        assertThrows(RuntimeException.class, crawler::crawl);
+
+        FeedCrawlCheckpoint failed = crawler.getCheckpoint();
+        assertFalse(failed.isComplete());
+        assertEquals(2, failed.getPages());
+        assertEquals("offset-2", failed.getNextOffset());
+        assertEquals(Arrays.asList(120, 119, 118, 117), readFeeds(crawler));
+
+        stubPage("offset-2", "history-page-3.json");
+        wireMockServer.resetRequests();
+
+        FeedCrawlCheckpoint checkpoint = new FeedHistoryCrawler(api, directory, 2).crawl();
+
+        assertTrue(checkpoint.isComplete());
+        assertEquals(Arrays.asList(120, 119, 118, 117, 116, 115), readFeeds(crawler));
+        verify(1, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+        verify(getRequestedFor(urlPathEqualTo("/v1/feeds"))
+                .withQueryParam("nextOffset", equalTo("offset-2")));
+    }
+
+    @Test
+    @DisplayName("Records written after the checkpoint are discarded")
+    public void partialPageTest() throws IOException {
+
+        stubFor(
+                WireMock.get(urlPathEqualTo("/v1/feeds"))
+                        .withQueryParam("nextOffset", equalTo("offset-1"))
+                        .willReturn(aResponse()
+                                .withStatus(400)));
+
+        FeedHistoryCrawler crawler = new FeedHistoryCrawler(api, directory, 2);
+        assertThrows(RuntimeException.class, crawler::crawl);
+
+        // A crash in the middle of appending the second page.
+        Files.write(crawler.getRecordsFile(),
+                "{\"feedId\":\"feed-118\",\"sequen".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        stubPage("offset-1", "history-page-2.json");
+
+        FeedCrawlCheckpoint checkpoint = crawler.crawl();
+
+        assertEquals(6, checkpoint.getFeeds());
+        assertEquals(checkpoint.getRecordsLength(), Files.size(crawler.getRecordsFile()));
+        assertEquals(Arrays.asList(120, 119, 118, 117, 116, 115), readFeeds(crawler));
+    }
+
+    private static List<Integer> readFeeds(final FeedHistoryCrawler crawler)
+            throws IOException {
+
+        try (Stream<Feed> feeds = crawler.readFeeds()) {
+            return feeds.map(Feed::getSequenceNumber).collect(Collectors.toList());
+        }
+    }
+}
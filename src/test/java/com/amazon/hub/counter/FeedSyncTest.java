@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedSyncResult;
+import com.amazon.hub.counter.entities.FeedWatermark;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.amazon.hub.counter.FeedPageStubs.stubPage;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedSyncTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    WireMockServer wireMockServer;
+
+    ClientCredentials clientCredentials = ClientCredentials.builder()
+            .clientId("client_id")
+            .clientSecret("client_secret")
+            .build();
+
+    private AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT);
+
+    @BeforeEach
+    public void startWireMock() {
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        // The feeds are listed from the newest, two per page.
+        stubPage(null, "history-page-1.json");
+        stubPage("offset-1", "history-page-2.json");
+        stubPage("offset-2", "history-page-3.json");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("The first synchronization reads every page")
+    public void initialSyncTest() {
+
+        FeedSyncResult result = api.syncFeeds(FeedWatermark.INITIAL, 2, "accessToken");
+
+        assertEquals(3, result.getPagesRead());
+        assertEquals(Arrays.asList(120, 119, 118, 117, 116, 115), sequenceNumbers(result));
+        assertEquals(120, (int) result.getWatermark().getSequenceNumber());
+    }
+
+    @Test
+    @DisplayName("The paging stops at the page reaching the watermark")
+    public void incrementalSyncTest() {
+
+        FeedSyncResult result = api.syncFeeds(FeedWatermark.builder()
+                .sequenceNumber(117)
+                .build(), 2, "accessToken");
+
+        assertEquals(2, result.getPagesRead());
+        assertEquals(Arrays.asList(120, 119, 118), sequenceNumbers(result));
+        assertEquals(FeedWatermark.builder().sequenceNumber(120)
+                .createDate(1_560_000_000_120L).build(), result.getWatermark());
+        verify(2, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+
+        FeedSyncResult steady = api.syncFeeds(result.getWatermark(), 2, "accessToken");
+
+        assertEquals(1, steady.getPagesRead());
+        assertEquals(0, steady.getFeeds().length);
+        assertEquals(result.getWatermark(), steady.getWatermark());
+    }
+
+    @Test
+    @DisplayName("Feeds not processed yet are listed apart and the watermark still advances")
+    public void pendingFeedsTest() {
+
+        stubPage(null, "history-page-1-processing.json");
+
+        FeedSyncResult result = api.syncFeeds(FeedWatermark.builder()
+                .sequenceNumber(117)
+                .build(), 2, "accessToken");
+
+        assertEquals(Arrays.asList(120, 119, 118), sequenceNumbers(result));
+        assertEquals(1, result.getPendingFeeds().length);
+        assertEquals("feed-119", result.getPendingFeeds()[0].getFeedId());
+        assertEquals(120, (int) result.getWatermark().getSequenceNumber());
+
+        // Without a sequenceNumber the createDate is compared.
+        assertTrue(FeedWatermark.builder().createDate(1_560_000_000_119L).build()
+                .covers(Feed.builder().createDate(1_560_000_000_118L).build()));
+    }
+
+    @Test
+    @DisplayName("A feed stuck processing does not return the newer feeds again")
+    public void noDuplicatesTest() {
+
+        stubPage("offset-1", "history-page-2-processing.json");
+
+        FeedSyncResult first = api.syncFeeds(FeedWatermark.INITIAL, 2, "accessToken");
+
+        assertEquals(Arrays.asList(120, 119, 118, 117, 116, 115), sequenceNumbers(first));
+        assertEquals(1, first.getPendingFeeds().length);
+
+        stubPage(null, "newer-page-1.json");
+        wireMockServer.resetRequests();
+
+        FeedSyncResult second = api.syncFeeds(first.getWatermark(), 2, "accessToken");
+
+        assertEquals(Collections.singletonList(121), sequenceNumbers(second));
+        assertEquals(1, second.getPagesRead());
+        assertEquals(121, (int) second.getWatermark().getSequenceNumber());
+        verify(1, getRequestedFor(urlPathEqualTo("/v1/feeds")));
+    }
+
+    private static List<Integer> sequenceNumbers(final FeedSyncResult result) {
+        return Arrays.stream(result.getFeeds()).map(Feed::getSequenceNumber)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.helpers.HttpMethod;
+import com.amazon.hub.counter.transport.HedgingHttpTransport;
+import com.amazon.hub.counter.transport.HedgingPolicy;
+import com.amazon.hub.counter.transport.HttpRequest;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpTransport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgingHttpTransportTest {
+
+    private static final HttpRequest REQUEST = HttpRequest.builder()
+            .method(HttpMethod.GET)
+            .url("http://localhost:8090/v1/feeds/feedId")
+            .build();
+
+    @Test
+    @DisplayName("Slow GET is hedged and the hedge response is used")
+    public void hedgeWinsTest() throws IOException {
+
+        AtomicInteger calls = new AtomicInteger();
+        // The 6th call, the first attempt of the last request, is slow
+        HttpTransport delegate = request -> {
+            if (calls.incrementAndGet() == 6) {
+                sleep(1000);
+            }
+            return new HttpResponse(200, null, null, null);
+        };
+
+        try (HedgingHttpTransport transport = new HedgingHttpTransport(
+                delegate, HedgingPolicy.builder()
+                .minimumSamples(5)
+                .minDelayMillis(50)
+                .maxHedgeRatio(1)
+                .build())) {
+
+            for (int i = 0; i < 5; i++) {
+                transport.execute(REQUEST).close();
+            }
+
+            long start = System.currentTimeMillis();
+            try (HttpResponse response = transport.execute(REQUEST)) {
+                assertEquals(200, response.getStatusCode());
+            }
+
+            assertTrue(System.currentTimeMillis() - start < 500);
+            assertEquals(50, transport.getHedgeDelayMillis());
+            assertEquals(1, transport.getHedgesFired());
+            assertEquals(1, transport.getHedgesWon());
+            assertEquals(7, calls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Hedges are bounded by maxHedgeRatio")
+    public void hedgeRateCapTest() throws IOException {
+
+        AtomicInteger calls = new AtomicInteger();
+        // Every call after the first 10 is slow
+        HttpTransport delegate = request -> {
+            if (calls.incrementAndGet() > 10) {
+                sleep(200);
+            }
+            return new HttpResponse(200, null, null, null);
+        };
+
+        try (HedgingHttpTransport transport = new HedgingHttpTransport(
+                delegate, HedgingPolicy.builder()
+                .latencyPercentile(0.5)
+                .minimumSamples(10)
+                .minDelayMillis(20)
+                .maxHedgeRatio(0.25)
+                .build())) {
+
+            for (int i = 0; i < 16; i++) {
+                transport.execute(REQUEST).close();
+            }
+
+            assertEquals(16, transport.getRequests());
+            assertEquals(4, transport.getHedgesFired());
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
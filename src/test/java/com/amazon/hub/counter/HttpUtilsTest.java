@@ -31,6 +31,7 @@ import java.io.IOException;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class HttpUtilsTest {
@@ -73,6 +74,24 @@ public class HttpUtilsTest {
 
     }
 
+    @Test
+    @DisplayName("Response body is returned unchanged by HttpUtils.getJson({url}, {bearerToken})")
+    public void httpUtilsGetJsonBodyTest() throws IOException {
+
+        String url = MOCK_API_ENDPOINT + "/multiline";
+        String body = "{\n  \"message\": \"  padded value  \",\n  \"retryable\": false\n}";
+
+        // Create WireMock stub
+        stubFor(
+                WireMock.get(urlEqualTo("/multiline"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody(body)));
+
+        assertEquals(body, HttpUtils.getJson(url, null));
+    }
+
     @Test
     @DisplayName("Error 403 (Forbidden) in HttpUtils.postJson({url}, {json}, {bearerToken})")
     public void httpUtilsPostJson403ErrorTest() {
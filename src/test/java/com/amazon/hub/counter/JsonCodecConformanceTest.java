@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.ErrorResponse;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.entities.OutputDocument;
+import com.amazon.hub.counter.json.GsonJsonCodec;
+import com.amazon.hub.counter.json.JsonCodec;
+import com.amazon.hub.counter.json.JsonCodecException;
+import com.amazon.hub.counter.json.JsonCodecs;
+import com.amazon.hub.counter.login.LoginResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks every codec found in the classpath against the JSON fixtures, a
+ * new codec passes these tests before it is selected.
+ */
+public class JsonCodecConformanceTest {
+
+    private static final String FIXTURES = "src/test/resources/__files/";
+    private static final JsonCodec REFERENCE = new ReflectiveGsonJsonCodec();
+
+    @Test
+    @DisplayName("The SDK uses the Gson codec unless another is selected")
+    public void defaultCodecTest() {
+
+        assertEquals(GsonJsonCodec.NAME, JsonCodecs.getDefault().getName());
+        assertTrue(JsonCodecs.getAvailable().containsKey(
+                ReflectiveGsonJsonCodec.NAME));
+    }
+
+    @TestFactory
+    @DisplayName("The feed request is encoded as the fixture")
+    public Stream<DynamicTest> feedRequestTest() {
+
+        return codecs(codec -> {
+            String json = fixture("feeds/feedRequest.json");
+            AccessPointsFeedRequest feed = codec.fromJson(json,
+                    AccessPointsFeedRequest.class);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            codec.write(feed, stream);
+
+            assertEquals(json, codec.toJson(feed));
+            assertEquals(json, new String(stream.toByteArray(),
+                    StandardCharsets.UTF_8));
+        });
+    }
+
+    @TestFactory
+    @DisplayName("The responses are decoded as by the reference codec")
+    public Stream<DynamicTest> responsesTest() {
+
+        return codecs(codec -> {
+            assertConforms(codec, "feeds/getFeeds-ok-response.json",
+                    FeedsResponse.class);
+            assertConforms(codec,
+                    "feeds/getFeeds-with-pageSize-ok-response.json",
+                    FeedsResponse.class);
+            assertConforms(codec, "feeds/getFeedById-ok-response.json",
+                    Feed.class);
+            assertConforms(codec, "feeds/getOutputDocument-ok-response.json",
+                    OutputDocument.class);
+            assertConforms(codec,
+                    "feeds/getOutputDocument-with-errors-response.json",
+                    OutputDocument.class);
+            assertConforms(codec, "feeds/getInputDocument-ok-response.json",
+                    AccessPointsFeedRequest.class);
+            assertConforms(codec, "feeds/getFeeds-error-response.json",
+                    ErrorResponse.class);
+            assertConforms(codec, "auth/login-ok-response.json",
+                    LoginResponse.class);
+
+            Map<?, ?> created = codec.read(new ByteArrayInputStream(
+                    fixture("feeds/postFeed-ok-response.json")
+                            .getBytes(StandardCharsets.UTF_8)), Map.class);
+            assertEquals("9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq",
+                    created.get("feedId"));
+        });
+    }
+
+    @TestFactory
+    @DisplayName("Malformed documents are rejected with a JsonCodecException")
+    public Stream<DynamicTest> malformedTest() {
+
+        return codecs(codec -> {
+            assertNull(codec.fromJson("null", Feed.class));
+            assertThrows(JsonCodecException.class,
+                    () -> codec.fromJson("{\"feedId\":", Feed.class));
+            assertThrows(JsonCodecException.class,
+                    () -> codec.fromJson("{\"sequenceNumber\":\"one\"}",
+                            Feed.class));
+            assertThrows(JsonCodecException.class,
+                    () -> codec.read(new ByteArrayInputStream(
+                            "[1,2]".getBytes(StandardCharsets.UTF_8)),
+                            Feed.class));
+        });
+    }
+
+    @TestFactory
+    @DisplayName("Array members are decoded one element at a time")
+    public Stream<DynamicTest> readArrayTest() {
+
+        return codecs(codec -> {
+            String json = fixture("feeds/getInputDocument-ok-response.json");
+            AccessPointsFeedRequest document = REFERENCE.fromJson(json,
+                    AccessPointsFeedRequest.class);
+
+            Iterator<AccessPoint> accessPoints = codec.readArray(
+                    stream(json), "accessPoints", AccessPoint.class);
+            assertEquals(REFERENCE.toJson(document.getAccessPoints()[0]),
+                    REFERENCE.toJson(accessPoints.next()));
+            assertFalse(accessPoints.hasNext());
+
+            assertFalse(codec.readArray(stream("null"), "accessPoints",
+                    AccessPoint.class).hasNext());
+            assertFalse(codec.readArray(stream("{\"accessPoints\":null}"),
+                    "accessPoints", AccessPoint.class).hasNext());
+            assertFalse(codec.readArray(stream("{\"feedId\":\"1\"}"),
+                    "accessPoints", AccessPoint.class).hasNext());
+            assertThrows(JsonCodecException.class, () -> codec.readArray(
+                    stream("[]"), "accessPoints", AccessPoint.class));
+
+            UncheckedIOException ex = assertThrows(
+                    UncheckedIOException.class, () -> codec.readArray(
+                            stream("{\"accessPoints\":[{\"isActive\":[]}]}"),
+                            "accessPoints", AccessPoint.class).next());
+            assertTrue(ex.getCause() instanceof JsonCodecException);
+        });
+    }
+
+    /**
+     * A check run against a codec.
+     */
+    @FunctionalInterface
+    private interface CodecCheck {
+        void check(JsonCodec codec) throws IOException;
+    }
+
+    private static Stream<DynamicTest> codecs(final CodecCheck check) {
+
+        return JsonCodecs.getAvailable().values().stream()
+                .map(codec -> DynamicTest.dynamicTest(codec.getName(),
+                        () -> check.check(codec)));
+    }
+
+    private static void assertConforms(final JsonCodec codec,
+                                       final String fixture,
+                                       final Class<?> type)
+            throws IOException {
+
+        String json = fixture(fixture);
+        Object decoded = codec.read(new ByteArrayInputStream(
+                json.getBytes(StandardCharsets.UTF_8)), type);
+
+        assertEquals(REFERENCE.toJson(REFERENCE.fromJson(json, type)),
+                REFERENCE.toJson(decoded), fixture);
+        assertEquals(REFERENCE.toJson(decoded), codec.toJson(decoded),
+                fixture);
+    }
+
+    private static ByteArrayInputStream stream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fixture(final String name) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(FIXTURES + name)),
+                StandardCharsets.UTF_8);
+    }
+}
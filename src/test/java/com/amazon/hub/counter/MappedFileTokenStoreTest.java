@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.login.AccessToken;
+import com.amazon.hub.counter.login.CachingAccessTokenProvider;
+import com.amazon.hub.counter.login.MappedFileTokenStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileTokenStoreTest {
+
+    private static final long HOUR_MILLIS = 3_600_000;
+
+    Path file;
+
+    @BeforeEach
+    public void createFile() throws IOException {
+        file = Files.createTempFile("amazon-hub-counter", ".token");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("A process reads the token another process logged in for")
+    public void sharedLoginTest() throws Exception {
+
+        AtomicInteger logins1 = new AtomicInteger();
+        AtomicInteger logins2 = new AtomicInteger();
+
+        try (MappedFileTokenStore store1 = new MappedFileTokenStore(file);
+             MappedFileTokenStore store2 = new MappedFileTokenStore(file);
+             CachingAccessTokenProvider provider1 =
+                     new CachingAccessTokenProvider(login("first", logins1),
+                             CachingAccessTokenProvider
+                                     .DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS,
+                             store1);
+             CachingAccessTokenProvider provider2 =
+                     new CachingAccessTokenProvider(login("second", logins2),
+                             CachingAccessTokenProvider
+                                     .DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS,
+                             store2)) {
+
+            assertEquals("first1", provider1.getAccessToken());
+            assertEquals("first1", provider2.getAccessToken());
+            assertEquals(1, logins1.get());
+            assertEquals(0, logins2.get());
+
+            // The second process renews the token, the first one uses it.
+            assertEquals("second1", provider2.refresh().getToken());
+            assertEquals("second1", provider1.refresh().getToken());
+            assertEquals(1, logins1.get());
+
+            // A rejected token is renewed even if it is still valid.
+            assertEquals("first2", provider1.refreshAccessToken("second1"));
+            assertEquals(2, logins1.get());
+        }
+    }
+
+    @Test
+    @DisplayName("A restarted process starts with the stored token")
+    public void restartTest() throws Exception {
+
+        AtomicInteger logins = new AtomicInteger();
+
+        try (MappedFileTokenStore store = new MappedFileTokenStore(file)) {
+            store.refresh(token -> token != null, login("first", logins));
+        }
+
+        try (MappedFileTokenStore store = new MappedFileTokenStore(file);
+             CachingAccessTokenProvider provider =
+                     new CachingAccessTokenProvider(login("second", logins),
+                             CachingAccessTokenProvider
+                                     .DEFAULT_REFRESH_BEFORE_EXPIRY_MILLIS,
+                             store)) {
+            assertEquals("first1", store.read().getToken());
+            assertEquals("first1", provider.getAccessToken());
+            assertEquals(1, logins.get());
+        }
+    }
+
+    @Test
+    @DisplayName("A file that is not a token file is left untouched")
+    public void invalidFileTest() throws Exception {
+
+        Files.write(file, new byte[MappedFileTokenStore.FILE_SIZE - 1]);
+        assertThrows(IOException.class, () -> new MappedFileTokenStore(file));
+
+        byte[] content = new byte[MappedFileTokenStore.FILE_SIZE];
+        content[0] = 1;
+        Files.write(file, content);
+        assertThrows(IOException.class, () -> new MappedFileTokenStore(file));
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    private static Supplier<AccessToken> login(final String name,
+                                               final AtomicInteger logins) {
+        return () -> AccessToken.builder()
+                .token(name + logins.incrementAndGet())
+                .expiresAtMillis(System.currentTimeMillis() + HOUR_MILLIS)
+                .build();
+    }
+}
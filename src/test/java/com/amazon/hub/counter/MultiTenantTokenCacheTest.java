@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.login.MultiTenantTokenCache;
+import com.amazon.hub.counter.login.TokenCachePolicy;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiTenantTokenCacheTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final ClientCredentials TENANT_A = ClientCredentials.builder()
+            .clientId("client_a")
+            .clientSecret("secret_a")
+            .build();
+    private static final ClientCredentials TENANT_B = ClientCredentials.builder()
+            .clientId("client_b")
+            .clientSecret("secret_b")
+            .build();
+    WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("auth/login-ok-response.json")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Tenants share a transport and log in once each")
+    public void sharedTransportTest() {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        PooledHttpTransport transport = new PooledHttpTransport();
+
+        try (MultiTenantTokenCache cache = new MultiTenantTokenCache(
+                MOCK_AUTH_ENDPOINT, transport,
+                TokenCachePolicy.builder().build())) {
+
+            for (ClientCredentials tenant : new ClientCredentials[]{TENANT_A, TENANT_B}) {
+                AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                        tenant, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                        transport, cache.getAccessTokenProvider(tenant));
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(feedId, api.getFeedById(feedId).getFeedId());
+                }
+            }
+
+            assertEquals(2, cache.getTenantCount());
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/auth/o2/token"))
+                .withRequestBody(matchingJsonPath("$.client_id", equalTo("client_a"))));
+        verify(1, postRequestedFor(urlEqualTo("/auth/o2/token"))
+                .withRequestBody(matchingJsonPath("$.client_id", equalTo("client_b"))));
+        // Every request went through the same pool
+        assertEquals(8, transport.getStats().get("http://localhost:" + PORT)
+                .getRequests());
+    }
+
+    @Test
+    @DisplayName("Idle tenants are evicted")
+    public void idleEvictionTest() throws InterruptedException {
+
+        try (MultiTenantTokenCache cache = new MultiTenantTokenCache(
+                MOCK_AUTH_ENDPOINT, new PooledHttpTransport(),
+                TokenCachePolicy.builder()
+                        .idleTimeoutMillis(200)
+                        .build())) {
+
+            cache.getAccessToken(TENANT_A);
+            assertEquals(1, cache.getTenantCount());
+
+            Thread.sleep(600);
+            assertEquals(0, cache.getTenantCount());
+
+            // An evicted tenant logs in again
+            cache.getAccessToken(TENANT_A);
+        }
+
+        verify(2, postRequestedFor(urlEqualTo("/auth/o2/token")));
+    }
+
+    @Test
+    @DisplayName("Least recently used tenant is evicted over maxTenants")
+    public void maxTenantsTest() {
+
+        try (MultiTenantTokenCache cache = new MultiTenantTokenCache(
+                MOCK_AUTH_ENDPOINT, new PooledHttpTransport(),
+                TokenCachePolicy.builder()
+                        .maxTenants(1)
+                        .build())) {
+
+            cache.getAccessToken(TENANT_A);
+            cache.getAccessToken(TENANT_B);
+            assertEquals(1, cache.getTenantCount());
+
+            cache.getAccessToken(TENANT_B);
+        }
+
+        verify(2, postRequestedFor(urlEqualTo("/auth/o2/token")));
+    }
+
+    @Test
+    @DisplayName("A slow login does not delay the refresh of the other tenants")
+    public void slowLoginTest() throws InterruptedException {
+
+        String shortLivedToken = "{\"access_token\":\"token\",\"token_type\":\"bearer\",\"expires_in\":2}";
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .inScenario("slow refresh")
+                        .whenScenarioStateIs(STARTED)
+                        .withRequestBody(matchingJsonPath("$.client_id", equalTo("client_a")))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody(shortLivedToken))
+                        .willSetStateTo("refreshing"));
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .inScenario("slow refresh")
+                        .whenScenarioStateIs("refreshing")
+                        .withRequestBody(matchingJsonPath("$.client_id", equalTo("client_a")))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withFixedDelay(5000)
+                                .withHeader("content-type", "application/json")
+                                .withBody(shortLivedToken)));
+        stubFor(
+                WireMock.post(urlEqualTo("/auth/o2/token"))
+                        .withRequestBody(matchingJsonPath("$.client_id", equalTo("client_b")))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBody(shortLivedToken)));
+
+        try (MultiTenantTokenCache cache = new MultiTenantTokenCache(
+                MOCK_AUTH_ENDPOINT, new PooledHttpTransport(),
+                TokenCachePolicy.builder()
+                        .refreshBeforeExpiryMillis(1000)
+                        .build())) {
+
+            // Both tokens are refreshed after about a second, A first.
+            cache.getAccessToken(TENANT_A);
+            cache.getAccessToken(TENANT_B);
+
+            long deadline = System.currentTimeMillis() + 3000;
+            while (countLogins("client_b") < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertEquals(2, countLogins("client_b"));
+            assertEquals(2, countLogins("client_a"));
+        }
+    }
+
+    private static int countLogins(final String clientId) {
+        return findAll(postRequestedFor(urlEqualTo("/auth/o2/token"))
+                .withRequestBody(matchingJsonPath("$.client_id", equalTo(clientId)))).size();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.helpers.HttpMethod;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.ConnectionPoolStats;
+import com.amazon.hub.counter.transport.HttpRequest;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpTransportConfig;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.amazon.hub.counter.transport.RequestBody;
+import com.amazon.hub.counter.transport.ResponseTooLargeException;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledHttpTransportTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Read timeout in PooledHttpTransport.execute({request})")
+    public void readTimeoutTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/slow"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(1000)));
+
+        PooledHttpTransport transport = new PooledHttpTransport(
+                HttpTransportConfig.builder()
+                        .readTimeoutMillis(100)
+                        .build());
+
+        assertThrows(SocketTimeoutException.class, () -> {
+            transport.execute(get(MOCK_API_ENDPOINT + "/slow"));
+        });
+
+        // The connection of the failed request is released
+        assertEquals(0, transport.getStats().get("http://localhost:" + PORT)
+                .getLeasedConnections());
+    }
+
+    @Test
+    @DisplayName("Connections per host are bounded")
+    public void maxConnectionsPerHostTest() throws IOException {
+
+        stubFor(WireMock.get(urlEqualTo("/ok"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("{}")));
+
+        PooledHttpTransport transport = new PooledHttpTransport(
+                HttpTransportConfig.builder()
+                        .maxConnectionsPerHost(1)
+                        .connectionAcquireTimeoutMillis(100)
+                        .build());
+
+        HttpResponse first = transport.execute(get(MOCK_API_ENDPOINT + "/ok"));
+
+        ConnectionPoolStats stats = transport.getStats()
+                .get("http://localhost:" + PORT);
+        assertEquals(1, stats.getLeasedConnections());
+        assertEquals(1, stats.getMaxConnections());
+
+        // No connection is available until the first response is closed
+        assertThrows(IOException.class, () -> {
+            transport.execute(get(MOCK_API_ENDPOINT + "/ok"));
+        });
+
+        first.close();
+
+        try (HttpResponse second = transport.execute(
+                get(MOCK_API_ENDPOINT + "/ok"))) {
+            assertEquals(200, second.getStatusCode());
+        }
+
+        stats = transport.getStats().get("http://localhost:" + PORT);
+        assertEquals(0, stats.getLeasedConnections());
+        assertEquals(2, stats.getRequests());
+        // Plain HTTP does not expose the opened connections
+        assertEquals(-1, stats.getConnectionsOpened());
+    }
+
+    @Test
+    @DisplayName("Requests are sent through the injected transport")
+    public void injectedTransportTest() {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        ClientCredentials clientCredentials = ClientCredentials.builder()
+                .clientId("client_id")
+                .clientSecret("client_secret")
+                .build();
+        PooledHttpTransport transport = new PooledHttpTransport();
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        Feed first = api.getFeedById(feedId, "accessToken");
+        Feed second = api.getFeedById(feedId, "accessToken");
+
+        assertEquals(feedId, first.getFeedId());
+        assertEquals(feedId, second.getFeedId());
+        assertEquals(2, transport.getStats().get("http://localhost:" + PORT)
+                .getRequests());
+    }
+
+    @Test
+    @DisplayName("Response body larger than maxResponseBodyBytes")
+    public void maxResponseBodyBytesTest() {
+
+        String feedId = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+        String documentId = "amzn1.tortuga.3.17498d12-1bcc-4aab-93cc-kf862mc1xepr.YETMV256LUIMLY";
+        stubFor(
+                WireMock.get(urlEqualTo("/v1/feeds/" + feedId + "/documents/" + documentId))
+                        .willReturn(aResponse()
+                                .withStatus(200)
+                                .withHeader("content-type", "application/json")
+                                .withBodyFile("feeds/getInputDocument-ok-response.json")));
+
+        ClientCredentials clientCredentials = ClientCredentials.builder()
+                .clientId("client_id")
+                .clientSecret("client_secret")
+                .build();
+        PooledHttpTransport transport = new PooledHttpTransport(
+                HttpTransportConfig.builder()
+                        .maxResponseBodyBytes(256)
+                        .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getInputDocument(feedId, documentId, "accessToken");
+        });
+        assertTrue(ex.getCause() instanceof ResponseTooLargeException);
+    }
+
+    @Test
+    @DisplayName("Gzip response is decompressed while it is read")
+    public void gzipResponseTest() throws IOException {
+
+        String json = "{\"feedId\":\"9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq\"}";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        stubFor(WireMock.get(urlEqualTo("/gzip"))
+                .withHeader("Accept-Encoding", equalTo("gzip"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Encoding", "gzip")
+                        .withBody(compressed.toByteArray())));
+
+        PooledHttpTransport transport = new PooledHttpTransport();
+
+        try (HttpResponse response = transport.execute(
+                get(MOCK_API_ENDPOINT + "/gzip"))) {
+            Scanner scanner = new Scanner(response.getBody(),
+                    StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+            assertEquals(json, scanner.next());
+        }
+
+        // The compressed bytes are the ones counted
+        assertEquals(compressed.size(), transport.getStats()
+                .get("http://localhost:" + PORT).getBytesReceived());
+    }
+
+    @Test
+    @DisplayName("Empty gzip response is read as an empty body")
+    public void emptyGzipResponseTest() throws IOException {
+
+        stubFor(WireMock.get(urlEqualTo("/gzip"))
+                .willReturn(aResponse()
+                        .withStatus(204)
+                        .withHeader("Content-Encoding", "gzip")));
+
+        PooledHttpTransport transport = new PooledHttpTransport();
+
+        try (HttpResponse response = transport.execute(
+                get(MOCK_API_ENDPOINT + "/gzip"))) {
+            assertEquals(204, response.getStatusCode());
+            assertEquals(-1, response.getBody().read());
+        }
+    }
+
+    @Test
+    @DisplayName("Request bodies are compressed when gzipRequests is enabled")
+    public void gzipRequestTest() throws IOException {
+
+        stubFor(WireMock.post(urlEqualTo("/gzip"))
+                .willReturn(aResponse()
+                        .withStatus(202)));
+
+        PooledHttpTransport transport = new PooledHttpTransport(
+                HttpTransportConfig.builder()
+                        .gzipRequests(true)
+                        .gzipRequestMinBytes(1024)
+                        .build());
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"Store\"}");
+        }
+        json.append("]");
+
+        transport.execute(post(MOCK_API_ENDPOINT + "/gzip",
+                json.toString())).close();
+        // Bodies under gzipRequestMinBytes are sent as they are
+        transport.execute(post(MOCK_API_ENDPOINT + "/gzip", "{}")).close();
+
+        verify(1, postRequestedFor(urlEqualTo("/gzip"))
+                .withHeader("Content-Encoding", equalTo("gzip")));
+        verify(1, postRequestedFor(urlEqualTo("/gzip"))
+                .withoutHeader("Content-Encoding"));
+        assertTrue(transport.getStats().get("http://localhost:" + PORT)
+                .getBytesSent() < json.length());
+    }
+
+    private static HttpRequest post(final String url, final String json) {
+
+        return HttpRequest.builder()
+                .method(HttpMethod.POST)
+                .url(url)
+                .body(RequestBody.json(json))
+                .build();
+    }
+
+    private static HttpRequest get(final String url) {
+
+        return HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .url(url)
+                .build();
+    }
+}
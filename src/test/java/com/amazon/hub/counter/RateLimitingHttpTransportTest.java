@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.helpers.EndpointFamily;
+import com.amazon.hub.counter.helpers.FeedAPIEndpointProvider;
+import com.amazon.hub.counter.helpers.HttpMethod;
+import com.amazon.hub.counter.entities.FeedType;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.HttpRequest;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.amazon.hub.counter.transport.RateLimitPolicy;
+import com.amazon.hub.counter.transport.RateLimiterStats;
+import com.amazon.hub.counter.transport.RateLimitingHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitingHttpTransportTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final String FEED_ID = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+    WireMockServer wireMockServer;
+    ClientCredentials clientCredentials;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        clientCredentials = ClientCredentials.builder()
+                .clientId("client_id")
+                .clientSecret("client_secret")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Requests are paced by the token bucket of their family")
+    public void tokenBucketTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        RateLimitingHttpTransport transport = new RateLimitingHttpTransport(
+                new PooledHttpTransport(),
+                RateLimitPolicy.builder()
+                        .requestsPerSecond(EndpointFamily.FEED_BY_ID, 10.0)
+                        .burstSize(1)
+                        .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            api.getFeedById(FEED_ID, "accessToken");
+        }
+
+        // The first token is in the bucket, the next ones come every 100 ms
+        assertTrue(System.currentTimeMillis() - start >= 280);
+
+        RateLimiterStats stats = transport.getStats()
+                .get(EndpointFamily.FEED_BY_ID);
+        assertEquals(4, stats.getRequests());
+        assertEquals(0, stats.getInFlightRequests());
+        assertEquals(0, stats.getQueuedRequests());
+        assertEquals(0, transport.getStats().get(EndpointFamily.DOCUMENTS)
+                .getRequests());
+    }
+
+    @Test
+    @DisplayName("Throttled responses cut the concurrency limit")
+    public void throttlingCutsConcurrencyTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(429)));
+
+        RateLimitingHttpTransport transport = new RateLimitingHttpTransport(
+                new PooledHttpTransport(),
+                RateLimitPolicy.builder()
+                        .initialConcurrency(8)
+                        .minConcurrency(2)
+                        .build());
+        AmazonHubCounterFeedAPI api = new AmazonHubCounterFeedAPI(
+                clientCredentials, MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT,
+                transport);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> {
+                api.getFeedById(FEED_ID, "accessToken");
+            });
+        }
+
+        RateLimiterStats stats = transport.getStats()
+                .get(EndpointFamily.FEED_BY_ID);
+        assertEquals(3, stats.getThrottledResponses());
+        // 8 -> 4 -> 2, bounded by minConcurrency
+        assertEquals(2, stats.getConcurrencyLimit());
+        assertEquals(8, transport.getStats().get(EndpointFamily.FEEDS_LIST)
+                .getConcurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("A request timed out on the concurrency limit gives its token back")
+    public void slotTimeoutRefundsTokenTest() throws IOException {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        RateLimitingHttpTransport transport = new RateLimitingHttpTransport(
+                new PooledHttpTransport(),
+                RateLimitPolicy.builder()
+                        .requestsPerSecond(EndpointFamily.FEED_BY_ID, 0.1)
+                        .burstSize(2)
+                        .initialConcurrency(1)
+                        .maxConcurrency(1)
+                        .acquireTimeoutMillis(200)
+                        .build());
+        HttpRequest request = HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .url(MOCK_API_ENDPOINT + "/v1/feeds/" + FEED_ID)
+                .build();
+
+        try (HttpResponse held = transport.execute(request)) {
+            assertEquals(200, held.getStatusCode());
+            // The only slot is taken, the second token is reserved in vain
+            assertThrows(IOException.class, () -> transport.execute(request));
+        }
+
+        // Without the refund the bucket would be empty for 10 s
+        try (HttpResponse response = transport.execute(request)) {
+            assertEquals(200, response.getStatusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Endpoint family of the API URLs")
+    public void endpointFamilyTest() {
+
+        FeedAPIEndpointProvider provider =
+                new FeedAPIEndpointProvider(MOCK_API_ENDPOINT);
+
+        assertEquals(EndpointFamily.FEEDS_LIST, EndpointFamily.of(
+                HttpMethod.GET, provider.getFeedsEndpoint("offset", 10)));
+        assertEquals(EndpointFamily.FEED_BY_ID, EndpointFamily.of(
+                HttpMethod.GET, provider.getFeedByIdEndpoint(FEED_ID)));
+        assertEquals(EndpointFamily.DOCUMENTS, EndpointFamily.of(
+                HttpMethod.GET, provider.getDocumentEndpoint(FEED_ID, "doc")));
+        assertEquals(EndpointFamily.POST_FEED, EndpointFamily.of(
+                HttpMethod.POST, provider.postFeedEndpoint(
+                        FeedType.STORE_FEED)));
+        assertEquals(EndpointFamily.OTHER, EndpointFamily.of(
+                HttpMethod.POST, MOCK_AUTH_ENDPOINT));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.helpers.HttpMethod;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.HttpRequest;
+import com.amazon.hub.counter.transport.HttpResponse;
+import com.amazon.hub.counter.transport.HttpStatusException;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.amazon.hub.counter.transport.RequestBody;
+import com.amazon.hub.counter.transport.RetryPolicy;
+import com.amazon.hub.counter.transport.RetryingHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryingHttpTransportTest {
+
+    private static final Integer PORT = 8090;
+    private static final String MOCK_API_ENDPOINT = "http://localhost:" + PORT;
+    private static final String MOCK_AUTH_ENDPOINT = "http://localhost:" + PORT + "/auth/o2/token";
+    private static final String FEED_ID = "9c3a0529-37e6-40dd-8b48-d5w1fgojr8mq";
+    WireMockServer wireMockServer;
+    RetryingHttpTransport transport;
+    AmazonHubCounterFeedAPI api;
+
+    @BeforeEach
+    public void startWireMock() {
+        // Initialize WireMock
+        wireMockServer = new WireMockServer(PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        ClientCredentials clientCredentials = ClientCredentials.builder()
+                .clientId("client_id")
+                .clientSecret("client_secret")
+                .build();
+        transport = new RetryingHttpTransport(new PooledHttpTransport(),
+                RetryPolicy.builder()
+                        .maxRetries(2)
+                        .baseDelayMillis(10)
+                        .maxDelayMillis(2000)
+                        .build());
+        api = new AmazonHubCounterFeedAPI(clientCredentials,
+                MOCK_API_ENDPOINT, MOCK_AUTH_ENDPOINT, transport);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Throttled request is retried after Retry-After")
+    public void retryAfterThrottlingTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .inScenario("throttling")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(429)
+                        .withHeader("Retry-After", "1"))
+                .willSetStateTo("available"));
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .inScenario("throttling")
+                .whenScenarioStateIs("available")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-ok-response.json")));
+
+        long start = System.currentTimeMillis();
+        Feed feed = api.getFeedById(FEED_ID, "accessToken");
+
+        assertEquals(FEED_ID, feed.getFeedId());
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(1, transport.getRetries());
+        verify(2, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+    }
+
+    @Test
+    @DisplayName("Retryable error is retried until maxRetries")
+    public void retryableErrorTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(400)
+                        .withHeader("content-type", "application/json")
+                        .withBody("{\"message\":\"Try again\","
+                                + "\"retryable\":true}")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getFeedById(FEED_ID, "accessToken");
+        });
+
+        HttpStatusException cause = (HttpStatusException) ex.getCause();
+        assertEquals(400, cause.getStatusCode());
+        assertEquals("Try again", cause.getErrorResponse().getMessage());
+        assertTrue(cause.isRetryable());
+        verify(3, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+    }
+
+    @Test
+    @DisplayName("Non retryable error is not retried")
+    public void nonRetryableErrorTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(403)
+                        .withHeader("content-type", "application/json")
+                        .withBodyFile("feeds/getFeedById-error-response.json")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getFeedById(FEED_ID, "accessToken");
+        });
+
+        HttpStatusException cause = (HttpStatusException) ex.getCause();
+        assertEquals(403, cause.getStatusCode());
+        assertFalse(cause.isRetryable());
+        assertEquals(0, transport.getRetries());
+        verify(1, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+    }
+
+    @Test
+    @DisplayName("Retry-After longer than maxDelayMillis is not waited for")
+    public void retryAfterOverMaxDelayTest() {
+
+        stubFor(WireMock.get(urlEqualTo("/v1/feeds/" + FEED_ID))
+                .willReturn(aResponse()
+                        .withStatus(503)
+                        .withHeader("Retry-After", "60")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+            api.getFeedById(FEED_ID, "accessToken");
+        });
+
+        assertEquals(503, ((HttpStatusException) ex.getCause())
+                .getStatusCode());
+        verify(1, getRequestedFor(urlEqualTo("/v1/feeds/" + FEED_ID)));
+    }
+
+    @Test
+    @DisplayName("Failed POST is only retried when throttled")
+    public void nonIdempotentTest() throws IOException {
+
+        stubFor(WireMock.post(urlEqualTo("/v1/feeds"))
+                .willReturn(aResponse()
+                        .withStatus(503)
+                        .withHeader("content-type", "application/json")
+                        .withBody("{\"message\":\"Try again\","
+                                + "\"retryable\":true}")));
+
+        try (HttpResponse response = transport.execute(postFeed())) {
+            assertEquals(503, response.getStatusCode());
+        }
+        verify(1, postRequestedFor(urlEqualTo("/v1/feeds")));
+
+        stubFor(WireMock.post(urlEqualTo("/v1/feeds"))
+                .willReturn(aResponse()
+                        .withStatus(429)));
+        wireMockServer.resetRequests();
+
+        try (HttpResponse response = transport.execute(postFeed())) {
+            assertEquals(429, response.getStatusCode());
+        }
+        verify(3, postRequestedFor(urlEqualTo("/v1/feeds")));
+    }
+
+    @Test
+    @DisplayName("Failed POST is retried when the policy allows it")
+    public void retryNonIdempotentTest() throws IOException {
+
+        stubFor(WireMock.post(urlEqualTo("/v1/feeds"))
+                .willReturn(aResponse()
+                        .withStatus(503)));
+
+        RetryingHttpTransport retrying = new RetryingHttpTransport(
+                new PooledHttpTransport(),
+                RetryPolicy.builder()
+                        .maxRetries(2)
+                        .baseDelayMillis(10)
+                        .retryNonIdempotent(true)
+                        .build());
+
+        try (HttpResponse response = retrying.execute(postFeed())) {
+            assertEquals(503, response.getStatusCode());
+        }
+        assertEquals(2, retrying.getRetries());
+        verify(3, postRequestedFor(urlEqualTo("/v1/feeds")));
+    }
+
+    private static HttpRequest postFeed() {
+
+        return HttpRequest.builder()
+                .method(HttpMethod.POST)
+                .url(MOCK_API_ENDPOINT + "/v1/feeds")
+                .body(RequestBody.json("{\"accessPoints\":[]}"))
+                .build();
+    }
+}
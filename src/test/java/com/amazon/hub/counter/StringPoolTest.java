@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Capability;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.json.JsonCodecs;
+import com.amazon.hub.counter.json.StringPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringPoolTest {
+
+    private static final String INPUT_DOCUMENT =
+            "src/test/resources/__files/feeds/getInputDocument-ok-response.json";
+
+    @Test
+    @DisplayName("The pool returns one instance per value and stays bounded")
+    public void internTest() {
+
+        StringPool pool = new StringPool(100);
+
+        String first = new String("America/Los_Angeles");
+        String second = new String("America/Los_Angeles");
+
+        assertEquals(128, pool.getCapacity());
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNull(pool.intern(null));
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("value-" + i, pool.intern("value-" + i));
+        }
+        assertEquals(128, pool.getCapacity());
+
+        StringPool disabled = new StringPool(0);
+        assertSame(second, disabled.intern(second));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StringPool(-1));
+    }
+
+    @Test
+    @DisplayName("Decoded access points share the repeated values")
+    public void decodedValuesAreSharedTest() throws IOException {
+
+        String json = new String(Files.readAllBytes(Paths.get(INPUT_DOCUMENT)),
+                StandardCharsets.UTF_8);
+
+        AccessPoint first = JsonCodecs.getDefault().fromJson(json,
+                AccessPointsFeedRequest.class).getAccessPoints()[0];
+        AccessPoint second = JsonCodecs.getDefault().fromJson(json,
+                AccessPointsFeedRequest.class).getAccessPoints()[0];
+
+        assertSame(first.getTimeZone(), second.getTimeZone());
+        assertSame(first.getAddress().getCity(),
+                second.getAddress().getCity());
+        assertSame(first.getCapabilities()[0], second.getCapabilities()[0]);
+        assertSame(first.getStandardHoursList()[0].getOpeningTime(),
+                first.getStandardHoursList()[1].getOpeningTime());
+        assertNotSame(first.getAccessPointId(), second.getAccessPointId());
+
+        // The wire format is unchanged.
+        assertEquals(JsonCodecs.getDefault().toJson(first),
+                new ReflectiveGsonJsonCodec().toJson(second));
+    }
+
+    @Test
+    @DisplayName("Capabilities and days are exposed as enums")
+    public void enumViewsTest() throws IOException {
+
+        String json = new String(Files.readAllBytes(Paths.get(INPUT_DOCUMENT)),
+                StandardCharsets.UTF_8);
+        AccessPoint accessPoint = JsonCodecs.getDefault().fromJson(json,
+                AccessPointsFeedRequest.class).getAccessPoints()[0];
+
+        assertEquals(EnumSet.of(Capability.PICK_UP, Capability.DROP_OFF),
+                accessPoint.getCapabilitySet());
+        assertTrue(accessPoint.hasCapability(Capability.DROP_OFF));
+        assertThrows(UnsupportedOperationException.class,
+                () -> accessPoint.getCapabilitySet().clear());
+
+        assertEquals(DayOfWeek.MONDAY,
+                accessPoint.getStandardHoursList()[0].getDayOfWeek());
+        assertEquals("12:00:00", accessPoint.getStandardHours(
+                DayOfWeek.SATURDAY).get().getMidDayClosures()[0]
+                .getStartTime());
+        assertFalse(accessPoint.getStandardHours(DayOfWeek.SUNDAY)
+                .isPresent());
+
+        StandardHours sunday = StandardHours.builder()
+                .day(DayOfWeek.SUNDAY)
+                .openingTime("10:00:00")
+                .closingTime("14:00:00")
+                .build();
+        assertEquals("SUNDAY", sunday.getDay());
+    }
+}
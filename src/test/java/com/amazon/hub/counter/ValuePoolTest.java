@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.ExceptionalClosure;
+import com.amazon.hub.counter.entities.MidDayClosure;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.json.JsonCodecs;
+import com.amazon.hub.counter.json.ValuePool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValuePoolTest {
+
+    @Test
+    @DisplayName("Schedules are equal by value")
+    public void valueEqualityTest() {
+
+        assertEquals(hours(DayOfWeek.MONDAY, "08:30:00"),
+                hours(DayOfWeek.MONDAY, "08:30:00"));
+        assertEquals(hours(DayOfWeek.MONDAY, "08:30:00").hashCode(),
+                hours(DayOfWeek.MONDAY, "08:30:00").hashCode());
+        assertNotEquals(hours(DayOfWeek.MONDAY, "08:30:00"),
+                hours(DayOfWeek.MONDAY, "09:00:00"));
+        assertEquals(closure("2038-01-19"), closure("2038-01-19"));
+        assertNotEquals(closure("2038-01-19"), closure("2038-01-20"));
+    }
+
+    @Test
+    @DisplayName("The pool shares equal values, not arrays, and stays bounded")
+    public void canonicalizeTest() {
+
+        ValuePool pool = new ValuePool(100);
+
+        StandardHours first = hours(DayOfWeek.MONDAY, "08:30:00");
+        StandardHours[] week = {first, hours(DayOfWeek.TUESDAY, "08:30:00")};
+
+        assertSame(first, pool.canonicalize(first));
+        assertSame(first, pool.canonicalize(
+                hours(DayOfWeek.MONDAY, "08:30:00")));
+        assertSame(week, pool.canonicalize(week));
+        StandardHours[] equalWeek = {hours(DayOfWeek.MONDAY, "08:30:00"),
+                hours(DayOfWeek.TUESDAY, "08:30:00")};
+        assertSame(equalWeek, pool.canonicalize(equalWeek));
+        assertNull(pool.canonicalize(null));
+
+        for (int i = 0; i < 10_000; i++) {
+            pool.canonicalize(closure("2038-01-" + i));
+        }
+        assertEquals(128, pool.getCapacity());
+
+        StandardHours other = hours(DayOfWeek.MONDAY, "08:30:00");
+        assertSame(other, new ValuePool(0).canonicalize(other));
+    }
+
+    @Test
+    @DisplayName("Access points decoded with the same hours share them")
+    public void decodedSchedulesAreSharedTest() throws IOException {
+
+        AccessPointsFeedRequest catalog = AccessPointsFeedRequest.builder()
+                .accessPoints(new AccessPoint[]{
+                        accessPoint("1", "08:30:00"),
+                        accessPoint("2", "08:30:00"),
+                        accessPoint("3", "09:00:00")})
+                .build();
+
+        String json = JsonCodecs.getDefault().toJson(catalog);
+        AccessPoint[] decoded = JsonCodecs.getDefault().fromJson(json,
+                AccessPointsFeedRequest.class).getAccessPoints();
+
+        assertSame(decoded[0].getStandardHoursList()[0],
+                decoded[1].getStandardHoursList()[0]);
+        assertSame(decoded[0].getExceptionalClosures()[0],
+                decoded[2].getExceptionalClosures()[0]);
+        assertNotSame(decoded[0].getStandardHoursList()[0],
+                decoded[2].getStandardHoursList()[0]);
+        assertSame(decoded[0].getStandardHoursList()[0]
+                        .getMidDayClosures()[0],
+                decoded[2].getStandardHoursList()[0]
+                        .getMidDayClosures()[0]);
+
+        // Changing the hours of one access point leaves the others as they
+        // were decoded.
+        assertNotSame(decoded[0].getStandardHoursList(),
+                decoded[1].getStandardHoursList());
+        decoded[0].getStandardHoursList()[0] = hours(DayOfWeek.MONDAY,
+                "10:00:00");
+        decoded[0].getStandardHoursList()[1].getMidDayClosures()[0] = null;
+        assertEquals("08:30:00",
+                decoded[1].getStandardHoursList()[0].getOpeningTime());
+        assertNotNull(decoded[1].getStandardHoursList()[1]
+                .getMidDayClosures()[0]);
+        decoded[0].getStandardHoursList()[0] = decoded[1]
+                .getStandardHoursList()[0];
+
+        // The JSON is unchanged.
+        assertEquals(json, JsonCodecs.getDefault().toJson(
+                AccessPointsFeedRequest.builder().accessPoints(decoded)
+                        .build()));
+    }
+
+    private static StandardHours hours(final DayOfWeek day,
+                                       final String openingTime) {
+
+        return StandardHours.builder()
+                .day(day)
+                .openingTime(openingTime)
+                .closingTime("20:00:00")
+                .midDayClosures(new MidDayClosure[]{
+                        MidDayClosure.builder()
+                                .startTime("13:00:00")
+                                .endTime("14:00:00")
+                                .build()})
+                .build();
+    }
+
+    private static ExceptionalClosure closure(final String date) {
+
+        return ExceptionalClosure.builder()
+                .startDateTime(date)
+                .endDateTime(date)
+                .build();
+    }
+
+    private static AccessPoint accessPoint(final String id,
+                                           final String openingTime) {
+
+        StandardHours[] standardHours = new StandardHours[5];
+        for (int day = 0; day < standardHours.length; day++) {
+            standardHours[day] = hours(DayOfWeek.of(day + 1), openingTime);
+        }
+
+        return AccessPoint.builder()
+                .accessPointId(id)
+                .accessPointName("Store " + id)
+                .isActive(true)
+                .timeZone("Europe/Madrid")
+                .address(Address.builder()
+                        .addressFieldOne("Calle " + id)
+                        .city("Madrid")
+                        .postalCode("28014")
+                        .countryCode("ES")
+                        .latitude("40.418653")
+                        .longitude("-3.699248")
+                        .build())
+                .capabilities(new String[]{"PICK_UP"})
+                .standardHoursList(standardHours)
+                .exceptionalClosures(new ExceptionalClosure[]{
+                        closure("2038-12-25")})
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.benchmarks;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.MidDayClosure;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.json.JsonCodecs;
+import com.amazon.hub.counter.json.StringPool;
+import com.amazon.hub.counter.json.ValuePool;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.DayOfWeek;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by a decoded catalog, with and without the
+ * {@link StringPool} and the {@link ValuePool} sharing the schedules. Each
+ * trial runs in its own JVM, the pool capacities are set before they are
+ * first used.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=CatalogFootprintBenchmark
+ * The retainedBytes counter is the heap held by the decoded catalog, JMH
+ * adds the counters of the iterations so a single one is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 1)
+@Fork(1)
+public class CatalogFootprintBenchmark {
+
+    private static final String[] TIME_ZONES = {"America/New_York",
+            "America/Chicago", "America/Denver", "America/Los_Angeles"};
+    private static final int CITIES = 500;
+    private static final int REGIONS = 50;
+
+    @Param({"4096", "0"})
+    private int poolCapacity;
+
+    @Param({"4096", "0"})
+    private int valuePoolCapacity;
+
+    @Param({"20000"})
+    private int accessPoints;
+
+    private String catalogJson;
+
+    /**
+     * The heap held by the catalog decoded in the iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+
+        System.setProperty(StringPool.CAPACITY_PROPERTY,
+                Integer.toString(poolCapacity));
+        System.setProperty(ValuePool.CAPACITY_PROPERTY,
+                Integer.toString(valuePoolCapacity));
+        if (StringPool.shared().getCapacity() != poolCapacity
+                || ValuePool.shared().getCapacity() != valuePoolCapacity) {
+            throw new IllegalStateException("The pool was used before the "
+                    + "benchmark set its capacity.");
+        }
+
+        catalogJson = JsonCodecs.getDefault().toJson(
+                AccessPointsFeedRequest.builder()
+                        .accessPoints(catalog(accessPoints))
+                        .build());
+    }
+
+    @Benchmark
+    public AccessPointsFeedRequest decodeCatalog(final Footprint footprint)
+            throws IOException {
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long before = usedHeap(memory);
+        AccessPointsFeedRequest catalog = JsonCodecs.getDefault()
+                .fromJson(catalogJson, AccessPointsFeedRequest.class);
+        footprint.retainedBytes = usedHeap(memory) - before;
+
+        return catalog;
+    }
+
+    private static long usedHeap(final MemoryMXBean memory) {
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static AccessPoint[] catalog(final int count) {
+
+        AccessPoint[] catalog = new AccessPoint[count];
+
+        for (int i = 0; i < count; i++) {
+            StandardHours[] standardHours = new StandardHours[7];
+            for (int day = 0; day < standardHours.length; day++) {
+                standardHours[day] = StandardHours.builder()
+                        .day(DayOfWeek.of(day + 1))
+                        .openingTime(i % 2 == 0 ? "08:30:00" : "09:00:00")
+                        .closingTime(day < 5 ? "20:00:00" : "14:00:00")
+                        .midDayClosures(new MidDayClosure[]{
+                                MidDayClosure.builder()
+                                        .startTime("13:00:00")
+                                        .endTime("14:00:00")
+                                        .build()
+                        })
+                        .build();
+            }
+            catalog[i] = AccessPoint.builder()
+                    .accessPointId("STORE-" + i)
+                    .accessPointName("Amazon Hub Counter " + i)
+                    .isActive(true)
+                    .timeZone(TIME_ZONES[i % TIME_ZONES.length])
+                    .address(Address.builder()
+                            .addressFieldOne(i + " Main Street")
+                            .city("City " + i % CITIES)
+                            .region("Region " + i % REGIONS)
+                            .postalCode(String.format("%05d", i % 100000))
+                            .countryCode("US")
+                            .latitude("47.615564")
+                            .longitude("-122.335819")
+                            .build())
+                    .capabilities(new String[]{"PICK_UP", "DROP_OFF"})
+                    .standardHoursList(standardHours)
+                    .build();
+        }
+
+        return catalog;
+    }
+}
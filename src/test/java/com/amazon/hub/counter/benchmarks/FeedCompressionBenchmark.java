@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.benchmarks;
+
+import com.amazon.hub.counter.AmazonHubCounterFeedAPI;
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.FeedType;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.login.ClientCredentials;
+import com.amazon.hub.counter.transport.ConnectionPoolStats;
+import com.amazon.hub.counter.transport.HttpTransportConfig;
+import com.amazon.hub.counter.transport.PooledHttpTransport;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Measures the latency of postFeed and the bytes sent per feed with and
+ * without gzip compressed request bodies.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=FeedCompressionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedCompressionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int accessPoints;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private WireMockServer wireMockServer;
+    private PooledHttpTransport transport;
+    private AmazonHubCounterFeedAPI api;
+    private AccessPointsFeedRequest feed;
+
+    /**
+     * The request bytes counted by the transport and the feeds posted, JMH
+     * sums them over the iterations so bytesSent / feedsPosted is the size
+     * of a feed.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Traffic {
+
+        public long bytesSent;
+        public long feedsPosted;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesSent = 0;
+            feedsPosted = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+
+        wireMockServer = new WireMockServer(options()
+                .dynamicPort()
+                .disableRequestJournal());
+        wireMockServer.start();
+        wireMockServer.stubFor(post(urlPathEqualTo("/v1/feeds"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("content-type", "application/json")
+                        .withBody("{\"feedId\":\"feedId\"}")));
+
+        String endpoint = "http://localhost:" + wireMockServer.port();
+        transport = new PooledHttpTransport(HttpTransportConfig.builder()
+                .gzipRequests(gzip)
+                .build());
+        api = new AmazonHubCounterFeedAPI(
+                ClientCredentials.builder()
+                        .clientId("client_id")
+                        .clientSecret("client_secret")
+                        .build(),
+                endpoint, endpoint + "/auth/o2/token", transport);
+        feed = AccessPointsFeedRequest.builder()
+                .accessPoints(accessPoints(accessPoints))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public String postFeed(final Traffic traffic) {
+
+        long before = bytesSent();
+        String feedId = api.postFeed(feed, FeedType.STORE_FEED,
+                "accessToken");
+        traffic.bytesSent += bytesSent() - before;
+        traffic.feedsPosted++;
+
+        return feedId;
+    }
+
+    private long bytesSent() {
+
+        return transport.getStats().values().stream()
+                .mapToLong(ConnectionPoolStats::getBytesSent)
+                .sum();
+    }
+
+    private static AccessPoint[] accessPoints(final int count) {
+
+        AccessPoint[] accessPoints = new AccessPoint[count];
+
+        for (int i = 0; i < count; i++) {
+            Address address = Address.builder()
+                    .addressFieldOne("Calle de Alcalá " + i)
+                    .city("Madrid")
+                    .postalCode("28014")
+                    .countryCode("ES")
+                    .latitude("40.418653")
+                    .longitude("-3.699248")
+                    .build();
+            StandardHours[] standardHours = new StandardHours[]{
+                    StandardHours.builder()
+                            .day("MONDAY")
+                            .openingTime("08:30:00")
+                            .closingTime("20:00:00")
+                            .build()
+            };
+            accessPoints[i] = AccessPoint.builder()
+                    .accessPointId("AMAZON-ES-MADRID-" + i)
+                    .accessPointName("Amazon Hub Counter " + i)
+                    .isActive(true)
+                    .timeZone("Europe/Madrid")
+                    .address(address)
+                    .capabilities(new String[]{"PICK_UP"})
+                    .standardHoursList(standardHours)
+                    .build();
+        }
+
+        return accessPoints;
+    }
+}
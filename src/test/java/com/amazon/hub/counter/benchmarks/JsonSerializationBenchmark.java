@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.benchmarks;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.CommunicationDetails;
+import com.amazon.hub.counter.entities.Feed;
+import com.amazon.hub.counter.entities.FeedRecordDocument;
+import com.amazon.hub.counter.entities.FeedsResponse;
+import com.amazon.hub.counter.entities.MidDayClosure;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.ReflectiveGsonJsonCodec;
+import com.amazon.hub.counter.json.GsonJsonCodec;
+import com.amazon.hub.counter.json.JsonCodec;
+import com.amazon.hub.counter.json.JsonCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON codecs found in the classpath, encoding a feed and
+ * decoding a page of feeds.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=JsonSerializationBenchmark
+ * Compare the allocation rates of other codecs with:
+ * -Dbenchmark="JsonSerializationBenchmark -prof gc -p codecName=gson,name"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final int FEEDS_PAGE_SIZE = 100;
+
+    @Param({GsonJsonCodec.NAME, ReflectiveGsonJsonCodec.NAME})
+    private String codecName;
+
+    @Param({"1000"})
+    private int accessPoints;
+
+    private JsonCodec codec;
+    private AccessPointsFeedRequest feed;
+    private String feedsJson;
+
+    @Setup
+    public void setUp() {
+
+        codec = JsonCodecs.getAvailable().get(codecName);
+        feed = AccessPointsFeedRequest.builder()
+                .accessPoints(accessPoints(accessPoints))
+                .build();
+        feedsJson = codec.toJson(feeds(FEEDS_PAGE_SIZE));
+    }
+
+    @Benchmark
+    public OutputStream encodeFeed() throws IOException {
+
+        NullOutputStream outputStream = new NullOutputStream();
+        codec.write(feed, outputStream);
+        return outputStream;
+    }
+
+    @Benchmark
+    public FeedsResponse decodeFeeds() throws IOException {
+
+        return codec.fromJson(feedsJson, FeedsResponse.class);
+    }
+
+    private static AccessPoint[] accessPoints(final int count) {
+
+        AccessPoint[] accessPoints = new AccessPoint[count];
+
+        for (int i = 0; i < count; i++) {
+            StandardHours[] standardHours = new StandardHours[6];
+            for (int day = 0; day < standardHours.length; day++) {
+                standardHours[day] = StandardHours.builder()
+                        .day(DayOfWeek.of(day + 1).name())
+                        .openingTime("08:30:00")
+                        .closingTime("20:00:00")
+                        .midDayClosures(new MidDayClosure[]{
+                                MidDayClosure.builder()
+                                        .startTime("14:00:00")
+                                        .endTime("15:00:00")
+                                        .build()
+                        })
+                        .build();
+            }
+            accessPoints[i] = AccessPoint.builder()
+                    .accessPointId("AMAZON-ES-MADRID-" + i)
+                    .accessPointName("Amazon Hub Counter " + i)
+                    .isActive(true)
+                    .timeZone("Europe/Madrid")
+                    .address(Address.builder()
+                            .addressFieldOne("Calle de Alcalá " + i)
+                            .city("Madrid")
+                            .postalCode("28014")
+                            .countryCode("ES")
+                            .latitude("40.418653")
+                            .longitude("-3.699248")
+                            .build())
+                    .capabilities(new String[]{"PICK_UP", "DROP_OFF"})
+                    .standardHoursList(standardHours)
+                    .communicationDetails(CommunicationDetails.builder()
+                            .phoneNumber("+34 910 000 000")
+                            .emailId("store-" + i + "@example.com")
+                            .build())
+                    .build();
+        }
+
+        return accessPoints;
+    }
+
+    private static FeedsResponse feeds(final int count) {
+
+        Feed[] records = new Feed[count];
+
+        for (int i = 0; i < count; i++) {
+            records[i] = Feed.builder()
+                    .feedId("feed-" + i)
+                    .clientId("client_id")
+                    .sequenceNumber(i)
+                    .status("Completed")
+                    .inputDocuments(new FeedRecordDocument[]{
+                            FeedRecordDocument.builder()
+                                    .documentId("input-" + i)
+                                    .documentType("INPUT_DOCUMENT")
+                                    .build()
+                    })
+                    .outputDocuments(new FeedRecordDocument[]{
+                            FeedRecordDocument.builder()
+                                    .documentId("output-" + i)
+                                    .documentType("OUTPUT_DOCUMENT")
+                                    .build()
+                    })
+                    .createDate(1_560_000_000_000L + i)
+                    .build();
+        }
+
+        return FeedsResponse.builder()
+                .nextOffset("offset")
+                .records(records)
+                .build();
+    }
+
+    /**
+     * Discards the bytes, so only the encoding is measured.
+     */
+    private static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset,
+                          final int length) {
+        }
+    }
+}
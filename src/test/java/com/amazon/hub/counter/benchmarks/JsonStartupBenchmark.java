@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.amazon.hub.counter.benchmarks;
+
+import com.amazon.hub.counter.entities.AccessPoint;
+import com.amazon.hub.counter.entities.AccessPointsFeedRequest;
+import com.amazon.hub.counter.entities.Address;
+import com.amazon.hub.counter.entities.StandardHours;
+import com.amazon.hub.counter.helpers.EntityTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first encoding of a feed in a new JVM, when the reflective
+ * adapters inspect the entity classes and the code is interpreted.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=JsonStartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class JsonStartupBenchmark {
+
+    @Param({"reflective", "generated"})
+    private String codec;
+
+    @Benchmark
+    public String firstEncoding() {
+
+        Gson gson = "reflective".equals(codec) ? new Gson()
+                : new GsonBuilder()
+                        .registerTypeAdapterFactory(
+                                new EntityTypeAdapterFactory())
+                        .create();
+        AccessPoint accessPoint = AccessPoint.builder()
+                .accessPointId("AMAZON-ES-MADRID")
+                .accessPointName("Amazon Hub Counter")
+                .isActive(true)
+                .timeZone("Europe/Madrid")
+                .address(Address.builder()
+                        .addressFieldOne("Calle de Alcalá 1")
+                        .city("Madrid")
+                        .postalCode("28014")
+                        .countryCode("ES")
+                        .latitude("40.418653")
+                        .longitude("-3.699248")
+                        .build())
+                .capabilities(new String[]{"PICK_UP"})
+                .standardHoursList(new StandardHours[]{
+                        StandardHours.builder()
+                                .day("MONDAY")
+                                .openingTime("08:30:00")
+                                .closingTime("20:00:00")
+                                .build()
+                })
+                .build();
+
+        return gson.toJson(AccessPointsFeedRequest.builder()
+                .accessPoints(new AccessPoint[]{accessPoint})
+                .build());
+    }
+}